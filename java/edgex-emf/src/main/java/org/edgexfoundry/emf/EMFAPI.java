@@ -1,22 +1,21 @@
 package org.edgexfoundry.emf;
 
-import org.edgexfoundry.support.logging.client.EdgeXLogger;
-import org.edgexfoundry.support.logging.client.EdgeXLoggerFactory;
 import org.zeromq.ZMQ;
 
 /**
  * Contains EMF APIs related to initialization, termination of EMF stack.
+ * EMFAPI owns the default {@link EMFContext}, used by publishers and
+ * subscribers created without a context.
  */
 public class EMFAPI {
 
     private static EMFAPI mInstance;
     public EMFStatusCode status = EMFStatusCode.EMF_Unknown;
-    private ZMQ.Context mContext;
+    private final EMFContext mContext = new EMFContext();
 
     static {
         System.setProperty("org.slf4j.simpleLogger.defaultLogLevel", "debug");
     }
-    private final static EdgeXLogger logger = EdgeXLoggerFactory.getEdgeXLogger(EMFAPI.class);
 
     private EMFAPI() {
         status = EMFStatusCode.EMF_Constructed;
@@ -41,10 +40,23 @@ public class EMFAPI {
      * @return {@link EMFErrorCode}
      */
     public EMFErrorCode initialize() {
-        mContext = ZMQ.context(1);
-        status = EMFStatusCode.EMF_Initialized;
-        logger.debug("EMF initialized");
-        return EMFErrorCode.EMF_OK;
+        return initialize(new EMFConfig());
+    }
+
+    /**
+     * Initialize required EMF components using given configuration. This API
+     * should be called first, before using any EMF APIs.
+     *
+     * @param config
+     *            {@link EMFConfig}
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode initialize(EMFConfig config) {
+        EMFErrorCode result = mContext.initialize(config);
+        if (EMFErrorCode.EMF_OK == result) {
+            status = mContext.getStatus();
+        }
+        return result;
     }
 
     /**
@@ -53,13 +65,11 @@ public class EMFAPI {
      * @return {@link EMFErrorCode}
      */
     public EMFErrorCode terminate() {
-        if (null != mContext) {
-            mContext.term();
-            mContext = null;
+        EMFErrorCode result = mContext.terminate();
+        if (EMFStatusCode.EMF_Terminated == mContext.getStatus()) {
             status = EMFStatusCode.EMF_Terminated;
-            logger.debug("EMF terminated");
         }
-        return EMFErrorCode.EMF_OK;
+        return result;
     }
 
     /**
@@ -71,8 +81,17 @@ public class EMFAPI {
         return status;
     }
 
+    /**
+     * Get the default context of EMF.
+     *
+     * @return {@link EMFContext}
+     */
+    public EMFContext getDefaultContext() {
+        return mContext;
+    }
+
     // For EMF internal use
     public ZMQ.Context getContext() {
-        return mContext;
+        return mContext.getContext();
     }
 }
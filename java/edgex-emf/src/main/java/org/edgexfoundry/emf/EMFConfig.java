@@ -0,0 +1,66 @@
+package org.edgexfoundry.emf;
+
+/**
+ * Represents configuration of the EMF stack, given to
+ * {@link EMFAPI#initialize(EMFConfig)}.
+ *
+ * I/O threads are shared by all the publishers and subscribers. A socket is
+ * served by a single I/O thread, so an application with many busy
+ * publishers should use about one I/O thread per publisher, up to the
+ * number of cores. Sockets are spread over I/O threads unless pinned by
+ * {@link EMFSocketOptions#setAffinity}.
+ */
+public class EMFConfig {
+
+    private int mIOThreads = 1;
+    private int mMaxSockets = -1;
+
+    /**
+     * Set the number of I/O threads.
+     *
+     * @param ioThreads
+     *            Number of threads, 1 by default.
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode setIOThreads(int ioThreads) {
+        if (ioThreads < 1) {
+            return EMFErrorCode.EMF_ERROR;
+        }
+        mIOThreads = ioThreads;
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Set the maximum number of sockets, including the internal sockets of
+     * subscribers and publishers.
+     *
+     * @param maxSockets
+     *            Number of sockets, -1 for ZeroMQ default.
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode setMaxSockets(int maxSockets) {
+        if (maxSockets < 1 && -1 != maxSockets) {
+            return EMFErrorCode.EMF_ERROR;
+        }
+        mMaxSockets = maxSockets;
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Get the number of I/O threads.
+     *
+     * @return Number of threads.
+     */
+    public int getIOThreads() {
+        return mIOThreads;
+    }
+
+    /**
+     * Get the maximum number of sockets.
+     *
+     * @return Number of sockets, -1 if not set.
+     */
+    public int getMaxSockets() {
+        return mMaxSockets;
+    }
+}
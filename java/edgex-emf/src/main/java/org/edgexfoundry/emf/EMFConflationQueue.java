@@ -0,0 +1,146 @@
+package org.edgexfoundry.emf;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.zeromq.ZMQ;
+
+/**
+ * Queue keeping only the latest pending frame of every topic, used by
+ * {@link EMFPublishMode#EMF_CONFLATE} publishers. A frame published without
+ * topic is keyed by the device of its event; a frame without topic and
+ * device is never replaced.
+ *
+ * Any number of threads may offer frames, a single thread polls them. Keys
+ * are polled in the order they first became pending, the frame returned is
+ * the latest one offered for the key.
+ */
+final class EMFConflationQueue {
+
+    private final int mCapacity;
+    private final ConcurrentHashMap<Object, EMFFrame> mPending =
+            new ConcurrentHashMap<Object, EMFFrame>();
+    private final ConcurrentLinkedQueue<Object> mOrder = new ConcurrentLinkedQueue<Object>();
+    private final AtomicLong mConflated = new AtomicLong();
+
+    /**
+     * Construct conflation queue.
+     *
+     * @param capacity
+     *            Maximum number of keys with a pending frame.
+     */
+    EMFConflationQueue(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        mCapacity = capacity;
+    }
+
+    /**
+     * Add frames, replacing the pending frames of the same keys. Frames
+     * chained by next and frames having many topics are split into one frame
+     * for every topic. Capacity is checked for all the keys before any frame
+     * is added.
+     *
+     * @param frame
+     *            First frame of the chain.
+     * @return false if the frames of new keys do not fit, none of the frames
+     *         is added then. True otherwise.
+     */
+    boolean offer(EMFFrame frame) {
+        if (null == frame.next && (null == frame.topics || 1 == frame.topics.length)) {
+            Object key = getKey(frame, 0);
+            if (mPending.size() >= mCapacity && false == mPending.containsKey(key)) {
+                return false;
+            }
+            put(key, split(frame, 0));
+            return true;
+        }
+
+        List<Object> keys = new ArrayList<Object>();
+        List<EMFFrame> frames = new ArrayList<EMFFrame>();
+        for (EMFFrame current = frame; null != current; current = current.next) {
+            int count = (null == current.topics) ? 1 : current.topics.length;
+            for (int i = 0; i < count; i++) {
+                keys.add(getKey(current, i));
+                frames.add(split(current, i));
+            }
+        }
+        Set<Object> newKeys = new HashSet<Object>();
+        for (Object key : keys) {
+            if (false == mPending.containsKey(key)) {
+                newKeys.add(key);
+            }
+        }
+        if (newKeys.size() > 0 && mPending.size() + newKeys.size() > mCapacity) {
+            return false;
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            put(keys.get(i), frames.get(i));
+        }
+        return true;
+    }
+
+    /**
+     * Remove the pending frame of the oldest key.
+     *
+     * @return Frame or null if queue is empty.
+     */
+    EMFFrame poll() {
+        Object key = null;
+        while (null != (key = mOrder.poll())) {
+            EMFFrame frame = mPending.remove(key);
+            if (null != frame) {
+                return frame;
+            }
+        }
+        return null;
+    }
+
+    boolean isEmpty() {
+        return mOrder.isEmpty();
+    }
+
+    /**
+     * Get the number of frames replaced by a newer frame before being
+     * polled.
+     *
+     * @return number of replaced frames.
+     */
+    long getConflatedCount() {
+        return mConflated.get();
+    }
+
+    // Key of the frame for its topic at index
+    private static Object getKey(EMFFrame frame, int index) {
+        if (null == frame.topics) {
+            return (null == frame.device) ? new Object() : "\0" + frame.device;
+        }
+        // Topic name is the key, valid topics never contain a zero character
+        return new String(frame.topics[index], ZMQ.CHARSET);
+    }
+
+    // Frame of a single topic, without next frame
+    private static EMFFrame split(EMFFrame frame, int index) {
+        if (null == frame.topics) {
+            return new EMFFrame(null, frame.data);
+        }
+        return new EMFFrame(new byte[][] { frame.topics[index] }, frame.data);
+    }
+
+    private void put(Object key, EMFFrame frame) {
+        // Key is queued only when it becomes pending. A frame offered after
+        // the key is polled but before its frame is removed is returned by
+        // that poll.
+        if (null == mPending.put(key, frame)) {
+            mOrder.offer(key);
+        } else {
+            mConflated.incrementAndGet();
+        }
+    }
+}
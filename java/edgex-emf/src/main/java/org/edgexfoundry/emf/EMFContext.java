@@ -0,0 +1,86 @@
+package org.edgexfoundry.emf;
+
+import org.edgexfoundry.support.logging.client.EdgeXLogger;
+import org.edgexfoundry.support.logging.client.EdgeXLoggerFactory;
+import org.zeromq.ZMQ;
+
+/**
+ * Represents an independent EMF context with its own I/O threads and
+ * sockets. Publishers and subscribers created with a context use its I/O
+ * threads only, so traffic of different contexts does not share threads or
+ * queues. Publishers and subscribers created without a context use the
+ * context of {@link EMFAPI}.
+ *
+ * Note: Context should be initialized before publishers and subscribers are
+ * created with it, and terminated after they are stopped.
+ */
+public class EMFContext {
+
+    private volatile ZMQ.Context mContext;
+    private volatile EMFStatusCode mStatus = EMFStatusCode.EMF_Constructed;
+
+    private final static EdgeXLogger logger = EdgeXLoggerFactory.getEdgeXLogger(EMFContext.class);
+
+    /**
+     * Initialize the context with default configuration.
+     *
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode initialize() {
+        return initialize(new EMFConfig());
+    }
+
+    /**
+     * Initialize the context using given configuration.
+     *
+     * @param config
+     *            {@link EMFConfig}
+     * @return {@link EMFErrorCode}
+     */
+    public synchronized EMFErrorCode initialize(EMFConfig config) {
+        if (null == config) {
+            logger.error("Config is null");
+            return EMFErrorCode.EMF_ERROR;
+        }
+        ZMQ.Context context = ZMQ.context(config.getIOThreads());
+        // Should be set before any socket is created
+        if (-1 != config.getMaxSockets() && false == context.setMaxSockets(config.getMaxSockets())) {
+            logger.error("Setting max sockets failed");
+            context.term();
+            return EMFErrorCode.EMF_ERROR;
+        }
+        mContext = context;
+        mStatus = EMFStatusCode.EMF_Initialized;
+        logger.debug("EMF context initialized [I/O threads]: " + config.getIOThreads());
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Perform cleanup of the context.
+     *
+     * @return {@link EMFErrorCode}
+     */
+    public synchronized EMFErrorCode terminate() {
+        if (null != mContext) {
+            mContext.term();
+            mContext = null;
+            mStatus = EMFStatusCode.EMF_Terminated;
+            logger.debug("EMF context terminated");
+        }
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Return status of the context.
+     *
+     * @return {@link EMFStatusCode}
+     */
+    public EMFStatusCode getStatus() {
+        return mStatus;
+    }
+
+    // For EMF internal use
+    ZMQ.Context getContext() {
+        return mContext;
+    }
+}
@@ -0,0 +1,337 @@
+package org.edgexfoundry.emf;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.edgexfoundry.support.logging.client.EdgeXLogger;
+import org.edgexfoundry.support.logging.client.EdgeXLoggerFactory;
+
+/**
+ * Executes subscriber callbacks on an executor instead of the receiver thread
+ * of {@link EMFSubscriber}. Ordered dispatcher delivers events of the same
+ * topic one after another in the order they were received, events of
+ * different topics are delivered in parallel on the shared executor.
+ * Unordered dispatcher hands every event to the executor on its own.
+ *
+ * Events waiting for delivery are bounded per topic, or per dispatcher if
+ * unordered. When the bound is reached, the event is dropped or the receiving
+ * thread waits until a callback completes, which leaves further events in
+ * the subscriber socket up to its receive high water mark.
+ *
+ * Same dispatcher can be shared by any number of subscribers.
+ */
+public class EMFDispatcher {
+
+    private final Executor mExecutor;
+    private final ExecutorService mOwnedExecutor;
+    private final ConcurrentMap<String, SerialQueue> mQueues;
+    private final boolean mOrdered;
+    private final int mQueueCapacity;
+    private final boolean mBlockWhenFull;
+
+    // Events waiting in unordered dispatch
+    private final Semaphore mUnorderedPermits;
+    private final AtomicLong mDroppedCount = new AtomicLong();
+
+    // Number of events of one topic delivered before yielding the thread to
+    // other topics
+    private final static int MAX_TASKS_PER_RUN = 64;
+    private final static int DEFAULT_QUEUE_CAPACITY = 4096;
+    // Blocked dispatch checks shutdown of the dispatcher this often
+    private final static long BLOCK_WAIT_MILLIS = 100;
+    private final static EdgeXLogger logger = EdgeXLoggerFactory
+            .getEdgeXLogger(EMFDispatcher.class);
+
+    /**
+     * Construct dispatcher with a fixed thread pool owned by the dispatcher.
+     * Thread pool is stopped by {@link EMFDispatcher#shutdown}.
+     *
+     * @param threadCount
+     *            Number of threads in the pool.
+     */
+    public EMFDispatcher(int threadCount) {
+        this(Executors.newFixedThreadPool(threadCount), true, true, DEFAULT_QUEUE_CAPACITY,
+                false);
+    }
+
+    /**
+     * Construct dispatcher on the given executor. Executor is not stopped by
+     * {@link EMFDispatcher#shutdown}.
+     *
+     * @param executor
+     *            Executor to run the callbacks.
+     */
+    public EMFDispatcher(Executor executor) {
+        this(executor, false, true, DEFAULT_QUEUE_CAPACITY, false);
+    }
+
+    /**
+     * Construct dispatcher on the given executor. Executor is not stopped by
+     * {@link EMFDispatcher#shutdown}.
+     *
+     * @param executor
+     *            Executor to run the callbacks.
+     * @param ordered
+     *            true to keep the order of events of a topic, false to run
+     *            every callback independently.
+     */
+    public EMFDispatcher(Executor executor, boolean ordered) {
+        this(executor, false, ordered, DEFAULT_QUEUE_CAPACITY, false);
+    }
+
+    /**
+     * Construct dispatcher on the given executor with bounded queues.
+     * Executor is not stopped by {@link EMFDispatcher#shutdown}.
+     *
+     * Note: With blockWhenFull, a callback should not stop its own
+     * subscriber, as the subscriber waits for the receiving thread which may
+     * be waiting for that callback.
+     *
+     * @param executor
+     *            Executor to run the callbacks.
+     * @param ordered
+     *            true to keep the order of events of a topic, false to run
+     *            every callback independently.
+     * @param queueCapacity
+     *            Number of events waiting for delivery, per topic if ordered
+     *            or in total otherwise. Default is 4096.
+     * @param blockWhenFull
+     *            true to make the receiving thread wait when the queue is
+     *            full, false to drop the event.
+     */
+    public EMFDispatcher(Executor executor, boolean ordered, int queueCapacity,
+            boolean blockWhenFull) {
+        this(executor, false, ordered, queueCapacity, blockWhenFull);
+    }
+
+    private EMFDispatcher(Executor executor, boolean owned, boolean ordered, int queueCapacity,
+            boolean blockWhenFull) {
+        if (null == executor) {
+            throw new NullPointerException("executor");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Invalid queue capacity: " + queueCapacity);
+        }
+        mExecutor = executor;
+        mOwnedExecutor = owned ? (ExecutorService) executor : null;
+        mQueues = new ConcurrentHashMap<String, SerialQueue>();
+        mOrdered = ordered;
+        mQueueCapacity = queueCapacity;
+        mBlockWhenFull = blockWhenFull;
+        mUnorderedPermits = new Semaphore(queueCapacity);
+    }
+
+    /**
+     * Construct dispatcher running callbacks on virtual threads, so callbacks
+     * can block on I/O without holding a platform thread. Requires Java 21 or
+     * above at runtime. Virtual thread executor is stopped by
+     * {@link EMFDispatcher#shutdown}.
+     *
+     * @param ordered
+     *            true to run the callbacks of each topic one after another on
+     *            virtual threads, false to run every callback on its own
+     *            virtual thread.
+     * @return {@link EMFDispatcher} or null if virtual threads are not
+     *         supported by the running JVM.
+     */
+    public static EMFDispatcher newVirtualThreadDispatcher(boolean ordered) {
+        ExecutorService executor = EMFVirtualThreads.newExecutor();
+        if (null == executor) {
+            logger.error("Virtual threads are not supported");
+            return null;
+        }
+        return new EMFDispatcher(executor, true, ordered, DEFAULT_QUEUE_CAPACITY, false);
+    }
+
+    /**
+     * Check whether running JVM supports virtual thread dispatcher.
+     *
+     * @return true if {@link EMFDispatcher#newVirtualThreadDispatcher} is
+     *         supported.
+     */
+    public static boolean isVirtualThreadSupported() {
+        return EMFVirtualThreads.isSupported();
+    }
+
+    /**
+     * Check whether the dispatcher keeps the order of events of a topic.
+     *
+     * @return true if dispatcher is ordered.
+     */
+    public boolean isOrdered() {
+        return mOrdered;
+    }
+
+    /**
+     * Get the number of events dropped because the queue was full.
+     *
+     * @return number of dropped events.
+     */
+    public long getDroppedCount() {
+        return mDroppedCount.get();
+    }
+
+    /**
+     * Stop the thread pool created by this dispatcher. Events which are not
+     * yet delivered are discarded.
+     */
+    public void shutdown() {
+        if (null != mOwnedExecutor) {
+            mOwnedExecutor.shutdownNow();
+        }
+    }
+
+    // Run task, behind all the earlier tasks of the same topic if ordered
+    void dispatch(String topic, final Runnable task) {
+        if (false == mOrdered) {
+            if (false == acquire(mUnorderedPermits)) {
+                return;
+            }
+            try {
+                mExecutor.execute(new Runnable() {
+                    public void run() {
+                        try {
+                            task.run();
+                        } finally {
+                            mUnorderedPermits.release();
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                mUnorderedPermits.release();
+                logger.error("Dispatch rejected: " + e.getMessage());
+            }
+            return;
+        }
+        String key = (null == topic) ? "" : topic;
+        while (true) {
+            SerialQueue queue = mQueues.get(key);
+            if (null == queue) {
+                SerialQueue newQueue = new SerialQueue(key);
+                queue = mQueues.putIfAbsent(key, newQueue);
+                if (null == queue) {
+                    queue = newQueue;
+                }
+            }
+            if (false == acquire(queue.mPermits)) {
+                return;
+            }
+            if (queue.add(task)) {
+                return;
+            }
+            // Queue was removed when it became idle, use a new one
+            queue.mPermits.release();
+        }
+    }
+
+    // Number of topics having a queue
+    int getQueueCount() {
+        return mQueues.size();
+    }
+
+    // Take a place in the queue, waiting for it if blocking. Returns false if
+    // the event is dropped.
+    private boolean acquire(Semaphore permits) {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        if (mBlockWhenFull) {
+            try {
+                while (null == mOwnedExecutor || false == mOwnedExecutor.isShutdown()) {
+                    if (permits.tryAcquire(BLOCK_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        mDroppedCount.incrementAndGet();
+        logger.error("Dispatch queue is full, event dropped");
+        return false;
+    }
+
+    /**
+     * Tasks of one topic. At most one run of the queue is scheduled on the
+     * executor at any time, which keeps the tasks in order. Queue is removed
+     * from the dispatcher when it runs out of tasks.
+     */
+    private final class SerialQueue implements Runnable {
+
+        private final String mKey;
+        private final Queue<Runnable> mTasks = new ConcurrentLinkedQueue<Runnable>();
+        private final Semaphore mPermits = new Semaphore(mQueueCapacity);
+        private final AtomicBoolean mScheduled = new AtomicBoolean();
+
+        // Removed from the dispatcher, guarded by the queue monitor
+        private boolean mRetired;
+
+        SerialQueue(String key) {
+            mKey = key;
+        }
+
+        // Returns false if the queue is removed and takes no more tasks
+        boolean add(Runnable task) {
+            synchronized (this) {
+                if (mRetired) {
+                    return false;
+                }
+                mTasks.offer(task);
+            }
+            schedule();
+            return true;
+        }
+
+        private void schedule() {
+            if (mScheduled.compareAndSet(false, true)) {
+                try {
+                    mExecutor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    mScheduled.set(false);
+                    logger.error("Dispatch rejected: " + e.getMessage());
+                }
+            }
+        }
+
+        public void run() {
+            Runnable task = null;
+            int count = 0;
+            try {
+                while (count < MAX_TASKS_PER_RUN && null != (task = mTasks.poll())) {
+                    mPermits.release();
+                    try {
+                        task.run();
+                    } catch (RuntimeException e) {
+                        logger.error("Exception in callback: " + e.getMessage());
+                    }
+                    count++;
+                }
+            } finally {
+                // Error thrown by a callback must not stall the topic
+                mScheduled.set(false);
+                if (false == retireIfIdle()) {
+                    schedule();
+                }
+            }
+        }
+
+        private synchronized boolean retireIfIdle() {
+            if (false == mTasks.isEmpty() || mScheduled.get()) {
+                return false;
+            }
+            mRetired = true;
+            mQueues.remove(mKey, this);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.edgexfoundry.emf;
+
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.emf.protobufevent.EMFEventConverter;
+
+/**
+ * Represents an EdgeX event serialized once into protocol buffer format. Same
+ * encoded event can be published any number of times, on any number of
+ * topics and by any publisher without being serialized again.
+ */
+public final class EMFEncodedEvent {
+
+    private final byte[] mData;
+
+    private EMFEncodedEvent(byte[] data) {
+        mData = data;
+    }
+
+    /**
+     * Serialize EdgeX event into protocol buffer format.
+     *
+     * @param event
+     *            {@link Event}
+     * @return Encoded event or null if event is invalid.
+     */
+    public static EMFEncodedEvent encode(Event event) {
+        byte[] data = EMFEventConverter.toProtoBuf(event);
+        if (null == data) {
+            return null;
+        }
+        return new EMFEncodedEvent(data);
+    }
+
+    /**
+     * Get size of the encoded event.
+     *
+     * @return size in bytes.
+     */
+    public int size() {
+        return mData.length;
+    }
+
+    // For EMF internal use, returned array must not be modified
+    byte[] getData() {
+        return mData;
+    }
+}
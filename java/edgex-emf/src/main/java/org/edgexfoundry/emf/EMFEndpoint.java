@@ -0,0 +1,235 @@
+package org.edgexfoundry.emf;
+
+/**
+ * Represents the endpoint a publisher binds and subscribers connect to.
+ *
+ * TCP: Publisher binds the port on all the interfaces, or on the given host.
+ * Subscriber connects to the given host, localhost if no host is given.
+ *
+ * INPROC: Publisher and subscribers in the same JVM, created with the same
+ * {@link EMFContext}. Events are passed in memory without any network
+ * stack.
+ *
+ * IPC: Publisher and subscribers on the same host, endpoint name is a path.
+ * Note: jeromq emulates IPC over the loopback interface.
+ */
+public final class EMFEndpoint {
+
+    /**
+     * Transports of endpoint.
+     */
+    public enum Transport {
+        TCP("tcp://"), INPROC("inproc://"), IPC("ipc://");
+
+        private final String mPrefix;
+
+        Transport(String prefix) {
+            mPrefix = prefix;
+        }
+
+        String getPrefix() {
+            return mPrefix;
+        }
+    }
+
+    private final static String ANY_HOST = "*";
+    private final static String LOCAL_HOST = "localhost";
+
+    private final Transport mTransport;
+    // TCP host, null for any interface
+    private final String mHost;
+    // TCP port, -1 for other transports
+    private final int mPort;
+    // INPROC name or IPC path, null for TCP
+    private final String mName;
+
+    // For EMF internal use, not validated
+    EMFEndpoint(Transport transport, String host, int port, String name) {
+        mTransport = transport;
+        mHost = host;
+        mPort = port;
+        mName = name;
+    }
+
+    /**
+     * Create TCP endpoint on all the interfaces.
+     *
+     * @param port
+     *            Port number.
+     * @return {@link EMFEndpoint} or null if port is invalid.
+     */
+    public static EMFEndpoint tcp(int port) {
+        return tcp(null, port);
+    }
+
+    /**
+     * Create TCP endpoint on given host.
+     *
+     * @param host
+     *            IP address or host name, null or * for all the interfaces.
+     * @param port
+     *            Port number.
+     * @return {@link EMFEndpoint} or null if host or port is invalid.
+     */
+    public static EMFEndpoint tcp(String host, int port) {
+        if (port < 0 || port > 65535) {
+            return null;
+        }
+        if (ANY_HOST.equals(host)) {
+            host = null;
+        }
+        if (null != host && false == isValidName(host, false)) {
+            return null;
+        }
+        return new EMFEndpoint(Transport.TCP, host, port, null);
+    }
+
+    /**
+     * Create INPROC endpoint.
+     *
+     * @param name
+     *            Endpoint name, unique in the context.
+     * @return {@link EMFEndpoint} or null if name is invalid.
+     */
+    public static EMFEndpoint inproc(String name) {
+        if (false == isValidName(name, true)) {
+            return null;
+        }
+        return new EMFEndpoint(Transport.INPROC, null, -1, name);
+    }
+
+    /**
+     * Create IPC endpoint.
+     *
+     * @param path
+     *            Endpoint path.
+     * @return {@link EMFEndpoint} or null if path is invalid.
+     */
+    public static EMFEndpoint ipc(String path) {
+        if (false == isValidName(path, true)) {
+            return null;
+        }
+        return new EMFEndpoint(Transport.IPC, null, -1, path);
+    }
+
+    /**
+     * Create endpoint from URI. For example: tcp://*:5562,
+     * tcp://192.168.0.2:5562, inproc://events, ipc:///tmp/events
+     *
+     * @param uri
+     *            Endpoint URI.
+     * @return {@link EMFEndpoint} or null if URI is invalid.
+     */
+    public static EMFEndpoint parse(String uri) {
+        if (null == uri) {
+            return null;
+        }
+        if (uri.startsWith(Transport.INPROC.getPrefix())) {
+            return inproc(uri.substring(Transport.INPROC.getPrefix().length()));
+        }
+        if (uri.startsWith(Transport.IPC.getPrefix())) {
+            return ipc(uri.substring(Transport.IPC.getPrefix().length()));
+        }
+        if (false == uri.startsWith(Transport.TCP.getPrefix())) {
+            return null;
+        }
+        String address = uri.substring(Transport.TCP.getPrefix().length());
+        int separator = address.lastIndexOf(':');
+        if (separator < 1 || separator == address.length() - 1) {
+            return null;
+        }
+        int port;
+        try {
+            port = Integer.parseInt(address.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return tcp(address.substring(0, separator), port);
+    }
+
+    /**
+     * Get the transport of endpoint.
+     *
+     * @return {@link Transport}
+     */
+    public Transport getTransport() {
+        return mTransport;
+    }
+
+    /**
+     * Get the host of TCP endpoint.
+     *
+     * @return Host, null for all the interfaces or other transports.
+     */
+    public String getHost() {
+        return mHost;
+    }
+
+    /**
+     * Get the port of TCP endpoint.
+     *
+     * @return Port number, -1 for other transports.
+     */
+    public int getPort() {
+        return mPort;
+    }
+
+    /**
+     * Get the name of INPROC endpoint or path of IPC endpoint.
+     *
+     * @return Name, null for TCP.
+     */
+    public String getName() {
+        return mName;
+    }
+
+    // Address for publisher to bind
+    String getBindAddress() {
+        if (Transport.TCP != mTransport) {
+            return mTransport.getPrefix() + mName;
+        }
+        return mTransport.getPrefix() + ((null == mHost) ? ANY_HOST : mHost) + ":" + mPort;
+    }
+
+    // Address for subscriber to connect
+    String getConnectAddress() {
+        if (Transport.TCP != mTransport) {
+            return mTransport.getPrefix() + mName;
+        }
+        return mTransport.getPrefix() + ((null == mHost) ? LOCAL_HOST : mHost) + ":" + mPort;
+    }
+
+    private static boolean isValidName(String name, boolean allowSlash) {
+        if (null == name || name.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isWhitespace(c) || (false == allowSlash && c == '/')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (false == (obj instanceof EMFEndpoint)) {
+            return false;
+        }
+        return getBindAddress().equals(((EMFEndpoint) obj).getBindAddress());
+    }
+
+    @Override
+    public int hashCode() {
+        return getBindAddress().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return getBindAddress();
+    }
+}
@@ -6,5 +6,6 @@ package org.edgexfoundry.emf;
 public enum EMFErrorCode {
     EMF_OK,
     EMF_ERROR,
-    EMF_INVALID_TOPIC
+    EMF_INVALID_TOPIC,
+    EMF_QUEUE_FULL
 }
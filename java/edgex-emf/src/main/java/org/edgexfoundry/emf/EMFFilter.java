@@ -1,8 +1,337 @@
 package org.edgexfoundry.emf;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
 /**
- * Represent filter for EMF service.
+ * Represent filter for EMF service. Filter accepts an event if the event
+ * satisfies all the conditions set on the filter:
+ *
+ * (1) Device: device of the event is one of the added devices. (2) Reading
+ * name: event has a reading with one of the added names. (3) Origin: origin
+ * of the event is in the origin range. (4) Value threshold: for every added
+ * threshold, event has a reading of the threshold name whose value is a
+ * number in the threshold range.
+ *
+ * Filter without any condition accepts all the events.
+ *
+ * Note: Filter is compiled when it is given to
+ * {@link EMFSubscriber#createFilter}, later changes to the filter are not
+ * applied until it is created again.
  */
 public class EMFFilter {
-    // TODO
+
+    // Prefix of subscriptions declaring a filter to the publisher. Topics and
+    // encoded events never start with a zero byte, so such a subscription
+    // does not match any event.
+    private final static byte[] SUBSCRIPTION_PREFIX = { 0, 'E', 'M', 'F', '-', 'F', 'I', 'L', 'T',
+            'E', 'R', '/' };
+    private final static int SUBSCRIPTION_VERSION = 1;
+    // Offsets of the owner and generation of the declaration
+    private final static int OWNER_OFFSET = SUBSCRIPTION_PREFIX.length + 1;
+    private final static int GENERATION_OFFSET = OWNER_OFFSET + 8;
+    private final static int CONDITIONS_OFFSET = GENERATION_OFFSET + 4;
+
+    private final Set<String> mDevices = new LinkedHashSet<String>();
+    private final Set<String> mReadingNames = new LinkedHashSet<String>();
+    private long mOriginFrom = Long.MIN_VALUE;
+    private long mOriginTo = Long.MAX_VALUE;
+    private final List<ValueThreshold> mThresholds = new ArrayList<ValueThreshold>();
+
+    /**
+     * Add device to accept events from.
+     *
+     * @param device
+     *            Device name.
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode addDevice(String device) {
+        if (null == device) {
+            return EMFErrorCode.EMF_ERROR;
+        }
+        mDevices.add(device);
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Add reading name to accept events having such a reading.
+     *
+     * @param name
+     *            Reading name.
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode addReadingName(String name) {
+        if (null == name) {
+            return EMFErrorCode.EMF_ERROR;
+        }
+        mReadingNames.add(name);
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Set the range of event origin time to be accepted.
+     *
+     * @param from
+     *            Earliest origin accepted, inclusive.
+     * @param to
+     *            Latest origin accepted, inclusive.
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode setOriginRange(long from, long to) {
+        if (from > to) {
+            return EMFErrorCode.EMF_ERROR;
+        }
+        mOriginFrom = from;
+        mOriginTo = to;
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Add threshold on the numeric value of a reading. Event is accepted only
+     * if it has a reading of the given name whose value is in the range.
+     *
+     * @param name
+     *            Reading name.
+     * @param min
+     *            Minimum value accepted, inclusive.
+     * @param max
+     *            Maximum value accepted, inclusive.
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode addValueThreshold(String name, double min, double max) {
+        if (null == name || !(min <= max)) {
+            return EMFErrorCode.EMF_ERROR;
+        }
+        mThresholds.add(new ValueThreshold(name, min, max));
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Get the devices added to the filter.
+     *
+     * @return Set of device names, empty if any device is accepted.
+     */
+    public Set<String> getDevices() {
+        return Collections.unmodifiableSet(mDevices);
+    }
+
+    /**
+     * Get the reading names added to the filter.
+     *
+     * @return Set of reading names, empty if any reading is accepted.
+     */
+    public Set<String> getReadingNames() {
+        return Collections.unmodifiableSet(mReadingNames);
+    }
+
+    /**
+     * Get the earliest origin accepted by the filter.
+     *
+     * @return Origin time.
+     */
+    public long getOriginFrom() {
+        return mOriginFrom;
+    }
+
+    /**
+     * Get the latest origin accepted by the filter.
+     *
+     * @return Origin time.
+     */
+    public long getOriginTo() {
+        return mOriginTo;
+    }
+
+    // For EMF internal use
+    List<ValueThreshold> getValueThresholds() {
+        return Collections.unmodifiableList(mThresholds);
+    }
+
+    /**
+     * Encode the filter as a subscription declaring it to the publisher.
+     *
+     * @param owner
+     *            Identifier of the declaring subscriber.
+     * @param generation
+     *            Generation of the declared filters, publisher applies the
+     *            latest generation of each subscriber.
+     * @return Subscription bytes.
+     */
+    byte[] toSubscription(long owner, int generation) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        try {
+            output.write(SUBSCRIPTION_PREFIX);
+            output.writeByte(SUBSCRIPTION_VERSION);
+            output.writeLong(owner);
+            output.writeInt(generation);
+            output.writeInt(mDevices.size());
+            for (String device : mDevices) {
+                output.writeUTF(device);
+            }
+            output.writeInt(mReadingNames.size());
+            for (String name : mReadingNames) {
+                output.writeUTF(name);
+            }
+            output.writeLong(mOriginFrom);
+            output.writeLong(mOriginTo);
+            output.writeInt(mThresholds.size());
+            for (ValueThreshold threshold : mThresholds) {
+                output.writeUTF(threshold.name);
+                output.writeDouble(threshold.min);
+                output.writeDouble(threshold.max);
+            }
+            output.flush();
+        } catch (IOException e) {
+            // Not thrown by byte array stream
+            return null;
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Check whether subscription declares a filter.
+     *
+     * @param subscription
+     *            Subscription bytes.
+     * @param offset
+     *            Offset of subscription in the array.
+     * @return true if subscription starts with filter prefix.
+     */
+    static boolean isFilterSubscription(byte[] subscription, int offset) {
+        if (subscription.length - offset < CONDITIONS_OFFSET) {
+            return false;
+        }
+        return Arrays.equals(SUBSCRIPTION_PREFIX,
+                Arrays.copyOfRange(subscription, offset, offset + SUBSCRIPTION_PREFIX.length))
+                && SUBSCRIPTION_VERSION == subscription[offset + SUBSCRIPTION_PREFIX.length];
+    }
+
+    /**
+     * Get the owner of a filter subscription.
+     *
+     * @param subscription
+     *            Filter subscription bytes.
+     * @param offset
+     *            Offset of subscription in the array.
+     * @return Identifier of the declaring subscriber.
+     */
+    static long getSubscriptionOwner(byte[] subscription, int offset) {
+        long owner = 0;
+        for (int i = 0; i < 8; i++) {
+            owner = (owner << 8) | (subscription[offset + OWNER_OFFSET + i] & 0xff);
+        }
+        return owner;
+    }
+
+    /**
+     * Get the generation of a filter subscription.
+     *
+     * @param subscription
+     *            Filter subscription bytes.
+     * @param offset
+     *            Offset of subscription in the array.
+     * @return Generation of the declared filters.
+     */
+    static int getSubscriptionGeneration(byte[] subscription, int offset) {
+        int generation = 0;
+        for (int i = 0; i < 4; i++) {
+            generation = (generation << 8) | (subscription[offset + GENERATION_OFFSET + i] & 0xff);
+        }
+        return generation;
+    }
+
+    /**
+     * Decode filter from a subscription created by
+     * {@link EMFFilter#toSubscription}.
+     *
+     * @param subscription
+     *            Subscription bytes.
+     * @param offset
+     *            Offset of subscription in the array.
+     * @return {@link EMFFilter} or null if subscription is not a valid filter.
+     */
+    static EMFFilter fromSubscription(byte[] subscription, int offset) {
+        if (false == isFilterSubscription(subscription, offset)) {
+            return null;
+        }
+        int start = offset + CONDITIONS_OFFSET;
+        DataInputStream input = new DataInputStream(
+                new ByteArrayInputStream(subscription, start, subscription.length - start));
+        EMFFilter filter = new EMFFilter();
+        try {
+            int count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                filter.addDevice(input.readUTF());
+            }
+            count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                filter.addReadingName(input.readUTF());
+            }
+            if (EMFErrorCode.EMF_OK != filter.setOriginRange(input.readLong(), input.readLong())) {
+                return null;
+            }
+            count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                if (EMFErrorCode.EMF_OK != filter.addValueThreshold(input.readUTF(),
+                        input.readDouble(), input.readDouble())) {
+                    return null;
+                }
+            }
+            if (input.available() > 0) {
+                return null;
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        return filter;
+    }
+
+    /**
+     * Copy the current conditions of the filter.
+     *
+     * @return {@link EMFFilter}
+     */
+    EMFFilter copy() {
+        EMFFilter filter = new EMFFilter();
+        filter.mDevices.addAll(mDevices);
+        filter.mReadingNames.addAll(mReadingNames);
+        filter.mOriginFrom = mOriginFrom;
+        filter.mOriginTo = mOriginTo;
+        filter.mThresholds.addAll(mThresholds);
+        return filter;
+    }
+
+    /**
+     * Compile the current conditions of the filter into an evaluator.
+     *
+     * @return {@link EMFFilterEvaluator}
+     */
+    EMFFilterEvaluator compile() {
+        return new EMFFilterEvaluator(this);
+    }
+
+    /**
+     * Numeric range for values of readings of a name.
+     */
+    static final class ValueThreshold {
+        final String name;
+        final double min;
+        final double max;
+
+        ValueThreshold(String name, double min, double max) {
+            this.name = name;
+            this.min = min;
+            this.max = max;
+        }
+    }
 }
@@ -0,0 +1,165 @@
+package org.edgexfoundry.emf;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.domain.core.Reading;
+
+/**
+ * Immutable form of an {@link EMFFilter} used to evaluate received events.
+ * Conditions on event fields are evaluated by
+ * {@link EMFFilterEvaluator#acceptHeader}, so an event can be rejected before
+ * its readings are decoded.
+ */
+final class EMFFilterEvaluator {
+
+    private final EMFFilter mFilter;
+    // Compiled conditions, to declare them to publisher
+    private final EMFFilter mConditions;
+
+    // null if any device or reading name is accepted
+    private final Set<String> mDevices;
+    private final Set<String> mReadingNames;
+    private final long mOriginFrom;
+    private final long mOriginTo;
+
+    private final String[] mThresholdNames;
+    private final double[] mThresholdMin;
+    private final double[] mThresholdMax;
+
+    EMFFilterEvaluator(EMFFilter filter) {
+        mFilter = filter;
+        mConditions = filter.copy();
+        mDevices = filter.getDevices().isEmpty() ? null : new HashSet<String>(filter.getDevices());
+        mReadingNames = filter.getReadingNames().isEmpty() ? null
+                : new HashSet<String>(filter.getReadingNames());
+        mOriginFrom = filter.getOriginFrom();
+        mOriginTo = filter.getOriginTo();
+
+        List<EMFFilter.ValueThreshold> thresholds = filter.getValueThresholds();
+        mThresholdNames = new String[thresholds.size()];
+        mThresholdMin = new double[thresholds.size()];
+        mThresholdMax = new double[thresholds.size()];
+        for (int i = 0; i < thresholds.size(); i++) {
+            mThresholdNames[i] = thresholds.get(i).name;
+            mThresholdMin[i] = thresholds.get(i).min;
+            mThresholdMax[i] = thresholds.get(i).max;
+        }
+    }
+
+    /**
+     * Get the filter this evaluator is compiled from.
+     *
+     * @return {@link EMFFilter}
+     */
+    EMFFilter getFilter() {
+        return mFilter;
+    }
+
+    /**
+     * Get the subscription declaring the conditions of this evaluator.
+     *
+     * @param owner
+     *            Identifier of the declaring subscriber.
+     * @param generation
+     *            Generation of the declared filters.
+     * @return Subscription bytes.
+     */
+    byte[] getSubscription(long owner, int generation) {
+        return mConditions.toSubscription(owner, generation);
+    }
+
+    /**
+     * Check whether the conditions on readings need to be evaluated.
+     *
+     * @return true if filter has reading names or value thresholds.
+     */
+    boolean needsReadings() {
+        return null != mReadingNames || mThresholdNames.length > 0;
+    }
+
+    /**
+     * Evaluate the conditions on event fields.
+     *
+     * @param event
+     *            {@link Event}, readings are not accessed.
+     * @return true if event fields are accepted.
+     */
+    boolean acceptHeader(Event event) {
+        if (null != mDevices && false == mDevices.contains(event.getDevice())) {
+            return false;
+        }
+        long origin = event.getOrigin();
+        return origin >= mOriginFrom && origin <= mOriginTo;
+    }
+
+    /**
+     * Evaluate the conditions on readings.
+     *
+     * @param readings
+     *            Readings of the event.
+     * @return true if readings are accepted.
+     */
+    boolean acceptReadings(List<Reading> readings) {
+        if (false == needsReadings()) {
+            return true;
+        }
+        if (null == readings) {
+            return false;
+        }
+        if (null != mReadingNames && false == hasReadingName(readings)) {
+            return false;
+        }
+        for (int i = 0; i < mThresholdNames.length; i++) {
+            if (false == hasValueInRange(readings, i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Evaluate all the conditions of the filter.
+     *
+     * @param event
+     *            {@link Event}
+     * @return true if event is accepted.
+     */
+    boolean accept(Event event) {
+        if (false == acceptHeader(event)) {
+            return false;
+        }
+        return false == needsReadings() || acceptReadings(event.getReadings());
+    }
+
+    private boolean hasReadingName(List<Reading> readings) {
+        for (Reading reading : readings) {
+            if (null != reading && mReadingNames.contains(reading.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasValueInRange(List<Reading> readings, int threshold) {
+        String name = mThresholdNames[threshold];
+        for (Reading reading : readings) {
+            if (null == reading || false == name.equals(reading.getName())
+                    || null == reading.getValue()) {
+                continue;
+            }
+            double value;
+            try {
+                value = Double.parseDouble(reading.getValue());
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            if (value >= mThresholdMin[threshold] && value <= mThresholdMax[threshold]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,29 @@
+package org.edgexfoundry.emf;
+
+/**
+ * Represents an encoded message waiting to be written on the publisher
+ * socket. Frames published together are chained using next and written on
+ * the socket in one pass.
+ */
+final class EMFFrame {
+
+    // Topic frames, null for messages published without topic. Encoded event
+    // is written once for every topic.
+    final byte[][] topics;
+    // Protobuf encoded event
+    final byte[] data;
+    // Device of the event if known, to conflate events without topic
+    final String device;
+    // Next frame of the same batch
+    EMFFrame next;
+
+    EMFFrame(byte[][] topics, byte[] data) {
+        this(topics, data, null);
+    }
+
+    EMFFrame(byte[][] topics, byte[] data, String device) {
+        this.topics = topics;
+        this.data = data;
+        this.device = device;
+    }
+}
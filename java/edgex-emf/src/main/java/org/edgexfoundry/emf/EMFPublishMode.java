@@ -0,0 +1,29 @@
+package org.edgexfoundry.emf;
+
+/**
+ * Enum represent publish modes of EMF publisher.
+ *
+ * EMF_SYNC: Caller thread writes the event on the socket while holding the
+ * publisher lock.
+ *
+ * EMF_ASYNC: Caller thread only encodes the event and puts it in a lock-free
+ * queue, a dedicated thread of the publisher writes it on the socket.
+ *
+ * EMF_CONFLATE: Same as EMF_ASYNC, but an event waiting to be written is
+ * replaced by a newer event published on the same topic, or from the same
+ * device if published without topic. Only the latest event of every topic is
+ * written when events are published faster than the socket drains.
+ *
+ * Events are conflated before the socket, so the socket queues of a slow
+ * subscriber still delay the events written. Publisher sets the send high
+ * water mark to 1 in this mode, unless set by {@link EMFSocketOptions}, and
+ * events which do not fit are dropped for that subscriber. Subscribers should
+ * set a small receive high water mark too, as their queue holds 1000 events
+ * by default. ZeroMQ conflate option is not used, it does not support the
+ * topic frame sent before the event.
+ */
+public enum EMFPublishMode {
+    EMF_SYNC,
+    EMF_ASYNC,
+    EMF_CONFLATE
+}
@@ -1,7 +1,13 @@
 package org.edgexfoundry.emf;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.edgexfoundry.domain.core.Event;
@@ -15,9 +21,10 @@ import org.zeromq.ZMQ;
  */
 public class EMFPublisher {
 
-    private int mPort;
-    @SuppressWarnings("unused")
+    private EMFEndpoint mEndpoint;
     private EMFCallback mCallback;
+    private EMFPublishMode mMode;
+    private EMFSocketOptions mOptions;
 
     private ZMQ.Socket mPublisher;
     private ZMQ.Context mContext;
@@ -25,8 +32,28 @@ public class EMFPublisher {
     // Thread safety lock
     private ReentrantLock mPubLock;
 
-    private final String PUB_TCP_PREFIX = "tcp://*:";
-    private final String TOPIC_PATTERN = "[a-zA-Z0-9-_./]+";
+    // Async mode: queue of encoded frames and the thread owning the socket.
+    // Conflate mode uses the conflation queue instead.
+    private EMFRingBuffer<EMFFrame> mQueue;
+    private EMFConflationQueue mConflationQueue;
+    private volatile Thread mSender;
+    private volatile boolean mRunning;
+    private volatile boolean mSenderParked;
+    // Publishing threads between the running check and the queue offer
+    private final AtomicInteger mEnqueuing = new AtomicInteger();
+
+    // Subscriptions and filters declared by subscribers, read from XPUB
+    // socket if enabled
+    private volatile boolean mSubscriptionTracking;
+    private volatile boolean mSubscriberFilters;
+    private final EMFSubscriptionTracker mTracker = new EMFSubscriptionTracker();
+
+    private final static int DEFAULT_QUEUE_CAPACITY = 4096;
+    // Socket queues at most this many events per subscriber in conflate
+    // mode, unless set by the socket options
+    private final static int CONFLATE_SEND_HWM = 1;
+    private final static int SENDER_SPIN_COUNT = 100;
+    private final static long SENDER_PARK_NANOS = 1000000L;
     private final static EdgeXLogger logger = EdgeXLoggerFactory.getEdgeXLogger(EMFPublisher.class);
 
     /**
@@ -39,10 +66,105 @@ public class EMFPublisher {
      *            {@link EMFCallback}
      */
     public EMFPublisher(int port, EMFCallback callback) {
-        mPort = port;
+        this(port, callback, EMFPublishMode.EMF_SYNC);
+    }
+
+    /**
+     * Publish data on specified port number using given publish mode.
+     * {@link EMFPublisher#start} API should be called before publishing the
+     * message.
+     *
+     * @param port
+     *            port for publishing message/events.
+     * @param callback
+     *            {@link EMFCallback}
+     * @param mode
+     *            {@link EMFPublishMode}
+     */
+    public EMFPublisher(int port, EMFCallback callback, EMFPublishMode mode) {
+        this(port, callback, mode, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Publish data on specified port number using given publish mode.
+     * {@link EMFPublisher#start} API should be called before publishing the
+     * message.
+     *
+     * Note: In {@link EMFPublishMode#EMF_ASYNC} mode publish APIs return
+     * EMF_QUEUE_FULL when queueCapacity publish calls are waiting to be
+     * written on the socket. A call takes one slot of the queue whatever its
+     * number of topics, and so does a batch of
+     * {@link EMFPublisher#publishBatch}. In {@link EMFPublishMode#EMF_CONFLATE}
+     * mode they return it when events of queueCapacity topics are waiting, and
+     * the send high water mark of the socket is 1 unless set by
+     * {@link EMFSocketOptions}.
+     *
+     * @param port
+     *            port for publishing message/events.
+     * @param callback
+     *            {@link EMFCallback}
+     * @param mode
+     *            {@link EMFPublishMode}
+     * @param queueCapacity
+     *            Number of publish calls that can wait in the publish queue,
+     *            rounded up to power of two, in EMF_ASYNC mode. Number of
+     *            topics in EMF_CONFLATE mode. Not used in EMF_SYNC mode.
+     */
+    public EMFPublisher(int port, EMFCallback callback, EMFPublishMode mode, int queueCapacity) {
+        this(tcpConfig(port), callback, mode, queueCapacity);
+    }
+
+    /**
+     * Publish data on the endpoint of given socket configuration using given
+     * publish mode. {@link EMFPublisher#start} API should be called before
+     * publishing the message.
+     *
+     * @param config
+     *            {@link EMFSocketConfig} with the endpoint to bind.
+     * @param callback
+     *            {@link EMFCallback}
+     * @param mode
+     *            {@link EMFPublishMode}
+     * @param queueCapacity
+     *            Number of publish calls or topics that can wait in the
+     *            publish queue, see
+     *            {@link EMFPublisher#EMFPublisher(int, EMFCallback, EMFPublishMode, int)}.
+     */
+    public EMFPublisher(EMFSocketConfig config, EMFCallback callback, EMFPublishMode mode,
+            int queueCapacity) {
+        EMFContext context = null;
+        EMFSocketOptions options = null;
+        if (null != config) {
+            mEndpoint = config.getEndpoint();
+            context = config.getContext();
+            options = config.getOptions();
+        }
         mCallback = callback;
-        mContext = EMFAPI.getInstance().getContext();
+        mMode = (null == mode) ? EMFPublishMode.EMF_SYNC : mode;
+        mOptions = (null == options) ? null : options.copy();
+        if (EMFPublishMode.EMF_CONFLATE == mMode) {
+            // Events are conflated in front of the socket, only a few may
+            // wait in the socket to keep them recent
+            if (null == mOptions) {
+                mOptions = new EMFSocketOptions();
+            }
+            if (-1 == mOptions.getSendHighWaterMark()) {
+                mOptions.setSendHighWaterMark(CONFLATE_SEND_HWM);
+            }
+        }
+        mContext = (null == context) ? EMFAPI.getInstance().getContext() : context.getContext();
         mPubLock = new ReentrantLock(true);
+        if (EMFPublishMode.EMF_ASYNC == mMode) {
+            mQueue = new EMFRingBuffer<EMFFrame>(queueCapacity);
+        } else if (EMFPublishMode.EMF_CONFLATE == mMode) {
+            mConflationQueue = new EMFConflationQueue(queueCapacity);
+        }
+    }
+
+    private static EMFSocketConfig tcpConfig(int port) {
+        EMFSocketConfig config = new EMFSocketConfig();
+        config.setEndpoint(new EMFEndpoint(EMFEndpoint.Transport.TCP, null, port, null));
+        return config;
     }
 
     // finalize method to be called by Java Garbage collector before destroying
@@ -63,13 +185,23 @@ public class EMFPublisher {
             logger.error("Context is null");
             return EMFErrorCode.EMF_ERROR;
         }
+        if (null == mEndpoint) {
+            logger.error("Endpoint is null");
+            return EMFErrorCode.EMF_ERROR;
+        }
 
         try {
             mPubLock.lock();
             if (null == mPublisher) {
-                mPublisher = mContext.socket(ZMQ.PUB);
+                mPublisher = mContext.socket(isXPub() ? ZMQ.XPUB : ZMQ.PUB);
+                if (null != mOptions) {
+                    mOptions.apply(mPublisher);
+                }
                 mPublisher.bind(getSocketAddress());
             }
+            if (EMFPublishMode.EMF_SYNC != mMode) {
+                startSender();
+            }
         } catch (Exception e) {
             logger.error("Exception while starting publisher: " + e.getMessage());
             mPublisher = null;
@@ -93,28 +225,10 @@ public class EMFPublisher {
             logger.error("Publisher or event is null");
             return EMFErrorCode.EMF_ERROR;
         }
-        byte[] byteEvent = EMFEventConverter.toProtoBuf(event);
-        if (null == byteEvent) {
-            logger.error("ByteEvent is null");
-            return EMFErrorCode.EMF_ERROR;
-        }
-        boolean result = false;
-        try {
-            mPubLock.lock();
-            if (null != mPublisher) {
-                result = mPublisher.send(byteEvent);
-            } else {
-                return EMFErrorCode.EMF_ERROR;
-            }
-        } catch (Exception e) {
-            logger.error("Exception while publishing: " + e.getMessage());
-            return EMFErrorCode.EMF_ERROR;
-        } finally {
-            mPubLock.unlock();
-        }
-        if (false == result) {
+        EMFErrorCode result = publishEvent(null, event);
+        if (EMFErrorCode.EMF_OK != result) {
             logger.error("Published without topic failed");
-            return EMFErrorCode.EMF_ERROR;
+            return result;
         }
         logger.debug("Published without topic");
         return EMFErrorCode.EMF_OK;
@@ -147,42 +261,51 @@ public class EMFPublisher {
             return EMFErrorCode.EMF_INVALID_TOPIC;
         }
 
-        boolean result = false;
-        byte[] byteEvent = EMFEventConverter.toProtoBuf(event);
-        if (null == byteEvent) {
-            logger.error("byteEvent is null");
-            return EMFErrorCode.EMF_ERROR;
-        }
-        try {
-            mPubLock.lock();
-            if (null != mPublisher) {
-                result = mPublisher.sendMore(validTopic);
-                if (false == result) {
-                    logger.error("SendMore failed");
-                    return EMFErrorCode.EMF_ERROR;
-                }
-                result = mPublisher.send(byteEvent);
-            } else {
-                return EMFErrorCode.EMF_ERROR;
-            }
-        } catch (Exception e) {
-            logger.error("Exception while publishing: " + e.getMessage());
-            return EMFErrorCode.EMF_ERROR;
-        } finally {
-            mPubLock.unlock();
+        byte[][] topicFrames = { validTopic.getBytes(ZMQ.CHARSET) };
+        EMFErrorCode result = publishEvent(topicFrames, event);
+        if (EMFErrorCode.EMF_OK != result) {
+            logger.error("Publish on topic failed: " + validTopic);
+            return result;
         }
         logger.debug("Published on topic: " + validTopic);
-        if (false == result) {
-            logger.error("SendMore failed");
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Publish events on a topic created by {@link EMFTopic#create}. Topic is
+     * not validated or encoded again, so publishing many events on the same
+     * topic should use this API.
+     *
+     * @param topic
+     *            {@link EMFTopic} on which event needs to be published.
+     * @param event
+     *            {@link Event}
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode publish(EMFTopic topic, Event event) {
+        if (null == mPublisher || null == event) {
+            logger.error("Publisher or event is null");
             return EMFErrorCode.EMF_ERROR;
         }
+        if (null == topic) {
+            logger.error("Topic is null");
+            return EMFErrorCode.EMF_INVALID_TOPIC;
+        }
+
+        EMFErrorCode result = publishEvent(topic.getFrames(), event);
+        if (EMFErrorCode.EMF_OK != result) {
+            logger.error("Publish on topic failed: " + topic);
+            return result;
+        }
+        logger.debug("Published on topic: " + topic);
         return EMFErrorCode.EMF_OK;
     }
 
     /**
-     * Publish an events on list of topics on socket for subscribers. On any of
-     * the topic in list, if it failed to publish event it will return
-     * EMF_ERROR/EMF_INVALID_TOPIC.
+     * Publish an events on list of topics on socket for subscribers. Event is
+     * encoded once and written for all the topics in one pass. If any of the
+     * topic in list is invalid, event is not published on any topic and
+     * EMF_INVALID_TOPIC is returned.
      *
      * Note: (1) Topic name should be as path format. For example:
      * home/livingroom/ (2) Topic name can have letters [a-z, A-z], numerics
@@ -207,14 +330,230 @@ public class EMFPublisher {
             return EMFErrorCode.EMF_INVALID_TOPIC;
         }
 
-        EMFErrorCode result = EMFErrorCode.EMF_OK;
-        for (String topic : topics) {
-            result = publish(topic, event);
-            if (result != EMFErrorCode.EMF_OK) {
-                return result;
+        if (null == mPublisher) {
+            logger.error("Publisher is null");
+            return EMFErrorCode.EMF_ERROR;
+        }
+
+        if (topics.isEmpty()) {
+            return EMFErrorCode.EMF_OK;
+        }
+
+        // validate all topics before publishing on any of them
+        byte[][] topicFrames = toTopicFrames(topics);
+        if (null == topicFrames) {
+            return EMFErrorCode.EMF_INVALID_TOPIC;
+        }
+
+        EMFErrorCode result = publishEvent(topicFrames, event);
+        if (EMFErrorCode.EMF_OK != result) {
+            logger.error("Publish on topic list failed");
+            return result;
+        }
+        logger.debug("Published on topics: " + topicFrames.length);
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Publish an already encoded event on the socket for subscribers.
+     *
+     * @param event
+     *            {@link EMFEncodedEvent}
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode publish(EMFEncodedEvent event) {
+        if (null == mPublisher || null == event) {
+            logger.error("Publisher or event is null");
+            return EMFErrorCode.EMF_ERROR;
+        }
+        EMFErrorCode result = publishFrame(new EMFFrame(null, event.getData()));
+        if (EMFErrorCode.EMF_OK != result) {
+            logger.error("Published without topic failed");
+            return result;
+        }
+        logger.debug("Published without topic");
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Publish an already encoded event on a specific topic on socket for
+     * subscribers.
+     *
+     * Note (1) Topic name should be as path format. For example:
+     * home/livingroom/ (2) Topic name can have letters [a-z, A-z], numerics
+     * [0-9] and special characters _ - . and / (3) Topic will be appended with
+     * forward slash [/] in case, if application has not appended it.
+     *
+     * @param topic
+     *            Topic on which event needs to be published.
+     * @param event
+     *            {@link EMFEncodedEvent}
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode publish(String topic, EMFEncodedEvent event) {
+        if (null == event) {
+            logger.error("Event is null");
+            return EMFErrorCode.EMF_ERROR;
+        }
+        return publish(Collections.singletonList(topic), event);
+    }
+
+    /**
+     * Publish an already encoded event on a topic created by
+     * {@link EMFTopic#create}.
+     *
+     * @param topic
+     *            {@link EMFTopic} on which event needs to be published.
+     * @param event
+     *            {@link EMFEncodedEvent}
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode publish(EMFTopic topic, EMFEncodedEvent event) {
+        if (null == mPublisher || null == event) {
+            logger.error("Publisher or event is null");
+            return EMFErrorCode.EMF_ERROR;
+        }
+        if (null == topic) {
+            logger.error("Topic is null");
+            return EMFErrorCode.EMF_INVALID_TOPIC;
+        }
+
+        EMFErrorCode result = publishFrame(new EMFFrame(topic.getFrames(), event.getData()));
+        if (EMFErrorCode.EMF_OK != result) {
+            logger.error("Publish on topic failed: " + topic);
+            return result;
+        }
+        logger.debug("Published on topic: " + topic);
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Publish an already encoded event on list of topics on socket for
+     * subscribers. Same encoded bytes are written for every topic. If any of
+     * the topic in list is invalid, event is not published on any topic and
+     * EMF_INVALID_TOPIC is returned.
+     *
+     * Note: (1) Topic name should be as path format. For example:
+     * home/livingroom/ (2) Topic name can have letters [a-z, A-z], numerics
+     * [0-9] and special characters _ - . and / (3) Topic will be appended with
+     * forward slash [/] in case, if application has not appended it.
+     *
+     * @param topics
+     *            Topic on which event needs to be published.
+     * @param event
+     *            {@link EMFEncodedEvent}
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode publish(List<String> topics, EMFEncodedEvent event) {
+        if (null == event) {
+            logger.error("Event is null");
+            return EMFErrorCode.EMF_ERROR;
+        }
+
+        if (null == topics) {
+            logger.error("Topic list is null");
+            return EMFErrorCode.EMF_INVALID_TOPIC;
+        }
+
+        if (null == mPublisher) {
+            logger.error("Publisher is null");
+            return EMFErrorCode.EMF_ERROR;
+        }
+
+        if (topics.isEmpty()) {
+            return EMFErrorCode.EMF_OK;
+        }
+
+        byte[][] topicFrames = toTopicFrames(topics);
+        if (null == topicFrames) {
+            return EMFErrorCode.EMF_INVALID_TOPIC;
+        }
+        return publishOnTopics(topicFrames, event.getData());
+    }
+
+    /**
+     * Publish a batch of events on socket for subscribers. Each distinct event
+     * is encoded once and all the events are written on the socket in one
+     * pass. If any of the topic in the batch is invalid, none of the events is
+     * published and EMF_INVALID_TOPIC is returned.
+     *
+     * Note: (1) Topic name should be as path format. For example:
+     * home/livingroom/ (2) Topic name can have letters [a-z, A-z], numerics
+     * [0-9] and special characters _ - . and / (3) Topic will be appended with
+     * forward slash [/] in case, if application has not appended it. (4)
+     * Events with null topic are published without topic.
+     *
+     * @param events
+     *            Collection of {@link EMFTopicEvent}
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode publishBatch(Collection<EMFTopicEvent> events) {
+        if (null == mPublisher || null == events) {
+            logger.error("Publisher or event list is null");
+            return EMFErrorCode.EMF_ERROR;
+        }
+
+        // Pending subscriptions are read when the batch is written, and
+        // before skipping an event at most once
+        boolean subscriptionsRead = EMFPublishMode.EMF_SYNC != mMode;
+        Map<Event, byte[]> encodedEvents = new IdentityHashMap<Event, byte[]>();
+        EMFFrame head = null;
+        EMFFrame tail = null;
+        for (EMFTopicEvent topicEvent : events) {
+            if (null == topicEvent || null == topicEvent.getEvent()) {
+                logger.error("Event is null");
+                return EMFErrorCode.EMF_ERROR;
+            }
+
+            byte[][] topicFrames = null;
+            if (null != topicEvent.getTopic()) {
+                String validTopic = validateTopic(topicEvent.getTopic());
+                if (null == validTopic) {
+                    logger.error("Invalid topic: " + topicEvent.getTopic());
+                    return EMFErrorCode.EMF_INVALID_TOPIC;
+                }
+                topicFrames = new byte[][] { validTopic.getBytes(ZMQ.CHARSET) };
+            }
+
+            if (false == isWanted(topicFrames, topicEvent.getEvent())) {
+                if (subscriptionsRead) {
+                    continue;
+                }
+                readSubscriptionsIfSync();
+                subscriptionsRead = true;
+                if (false == isWanted(topicFrames, topicEvent.getEvent())) {
+                    continue;
+                }
+            }
+            byte[] byteEvent = encodedEvents.get(topicEvent.getEvent());
+            if (null == byteEvent) {
+                byteEvent = EMFEventConverter.toProtoBuf(topicEvent.getEvent());
+                if (null == byteEvent) {
+                    logger.error("byteEvent is null");
+                    return EMFErrorCode.EMF_ERROR;
+                }
+                encodedEvents.put(topicEvent.getEvent(), byteEvent);
+            }
+
+            EMFFrame frame = new EMFFrame(topicFrames, byteEvent, topicEvent.getEvent().getDevice());
+            if (null == head) {
+                head = frame;
+            } else {
+                tail.next = frame;
             }
+            tail = frame;
         }
-        return result;
+
+        if (null == head) {
+            return EMFErrorCode.EMF_OK;
+        }
+        EMFErrorCode result = publishFrame(head);
+        if (EMFErrorCode.EMF_OK != result) {
+            logger.error("Publish batch failed");
+            return result;
+        }
+        logger.debug("Published batch: " + events.size());
+        return EMFErrorCode.EMF_OK;
     }
 
     /**
@@ -232,6 +571,8 @@ public class EMFPublisher {
         try {
             mPubLock.lock();
             if (null != mPublisher) {
+                // Let sender thread flush queued events
+                stopSender();
                 // Sync close
                 result = syncClose();
             } else {
@@ -251,30 +592,427 @@ public class EMFPublisher {
      * @return port number as integer.
      */
     public int getPort() {
-        return mPort;
+        return (null == mEndpoint) ? -1 : mEndpoint.getPort();
     }
 
-    private String validateTopic(String topic) {
-        if (null == topic || topic.isEmpty()) {
-            return null;
+    /**
+     * Get the endpoint of the publisher.
+     *
+     * @return {@link EMFEndpoint}
+     */
+    public EMFEndpoint getEndpoint() {
+        return mEndpoint;
+    }
+
+    /**
+     * Get the publish mode of the publisher.
+     *
+     * @return {@link EMFPublishMode}
+     */
+    public EMFPublishMode getPublishMode() {
+        return mMode;
+    }
+
+    /**
+     * Get the number of events replaced by a newer event of the same topic
+     * before being written, in {@link EMFPublishMode#EMF_CONFLATE} mode.
+     *
+     * @return number of replaced events, 0 in other modes.
+     */
+    public long getConflatedCount() {
+        return (null == mConflationQueue) ? 0 : mConflationQueue.getConflatedCount();
+    }
+
+    /**
+     * Enable or disable filtering of events by the filters declared by the
+     * subscribers. When enabled, events which none of the connected
+     * subscribers accept are not encoded or sent. Subscribers declare their
+     * filters created by {@link EMFSubscriber#createFilter} if enabled by
+     * {@link EMFSubscriber#setFilterDeclaration}, subscribers without filter
+     * declare that they accept all the events.
+     *
+     * Note: (1) Should be called before {@link EMFPublisher#start}. (2) All
+     * the subscribers of the publisher should declare their filters, events
+     * are not sent to other subscribers when all the declaring subscribers
+     * reject them. (3) Filters are applied on events given as {@link Event},
+     * already encoded events are always sent.
+     *
+     * @param enable
+     *            true to filter events by subscriber filters, false by
+     *            default.
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode setSubscriberFilters(boolean enable) {
+        try {
+            mPubLock.lock();
+            if (null != mPublisher) {
+                logger.error("Publisher is already started");
+                return EMFErrorCode.EMF_ERROR;
+            }
+            mSubscriberFilters = enable;
+        } finally {
+            mPubLock.unlock();
+        }
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Check whether events are filtered by subscriber filters.
+     *
+     * @return true if enabled.
+     */
+    public boolean isSubscriberFilters() {
+        return mSubscriberFilters;
+    }
+
+    /**
+     * Enable or disable tracking of the topics subscribed by the connected
+     * subscribers. When enabled, events published on topics which no
+     * subscriber subscribed are not encoded or sent.
+     *
+     * Note: (1) Should be called before {@link EMFPublisher#start}. (2) With
+     * jeromq 0.4.2 the socket fails on the un-subscription of a connected
+     * subscriber and may miss the subscriptions after it. Publisher stops
+     * tracking then and encodes and sends all the events. Subscriptions of
+     * disconnected subscribers are removed without failure.
+     *
+     * @param enable
+     *            true to track subscriptions, false by default.
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode setSubscriptionTracking(boolean enable) {
+        try {
+            mPubLock.lock();
+            if (null != mPublisher) {
+                logger.error("Publisher is already started");
+                return EMFErrorCode.EMF_ERROR;
+            }
+            mSubscriptionTracking = enable;
+        } finally {
+            mPubLock.unlock();
+        }
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Check whether subscriptions of the subscribers are tracked.
+     *
+     * @return true if enabled.
+     */
+    public boolean isSubscriptionTracking() {
+        return mSubscriptionTracking;
+    }
+
+    /**
+     * Check whether any connected subscriber subscribed the topic.
+     *
+     * Note: Publisher can tell it only if enabled by
+     * {@link EMFPublisher#setSubscriptionTracking}, otherwise true is
+     * returned for a valid topic.
+     *
+     * @param topic
+     *            Topic name.
+     * @return true if topic is subscribed.
+     */
+    public boolean hasSubscriber(String topic) {
+        String validTopic = validateTopic(topic);
+        if (null == validTopic) {
+            logger.error("Invalid topic: " + topic);
+            return false;
+        }
+        if (false == mSubscriptionTracking) {
+            return true;
+        }
+        readSubscriptionsIfSync();
+        return mTracker.isSubscribed(validTopic.getBytes(ZMQ.CHARSET));
+    }
+
+    private boolean isXPub() {
+        return mSubscriptionTracking || mSubscriberFilters;
+    }
+
+    private EMFErrorCode enqueue(EMFFrame frame) {
+        boolean queued = false;
+        mEnqueuing.incrementAndGet();
+        try {
+            // Checked after announcing the offer, so that stopSender either
+            // sees this thread or this thread sees the stop
+            if (false == mRunning) {
+                logger.error("Publisher is not running");
+                return EMFErrorCode.EMF_ERROR;
+            }
+            queued = (null != mConflationQueue) ? mConflationQueue.offer(frame)
+                    : mQueue.offer(frame);
+        } finally {
+            mEnqueuing.decrementAndGet();
+        }
+        if (false == queued) {
+            logger.error("Publish queue is full");
+            return EMFErrorCode.EMF_QUEUE_FULL;
+        }
+        if (mSenderParked) {
+            Thread sender = mSender;
+            if (null != sender) {
+                LockSupport.unpark(sender);
+            }
+        }
+        return EMFErrorCode.EMF_OK;
+    }
+
+    private void startSender() {
+        if (null != mSender) {
+            return;
+        }
+        // Drop events left over from a previous run
+        while (null != pollFrame()) {
+            logger.debug("Discarded stale event");
+        }
+        mRunning = true;
+        mSender = new Thread(new Runnable() {
+            public void run() {
+                sendQueuedFrames();
+            }
+        }, "EMFPublisher-" + mEndpoint);
+        mSender.start();
+        logger.debug("Sender thread started");
+    }
+
+    private void stopSender() {
+        Thread sender = mSender;
+        if (null == sender) {
+            return;
+        }
+        mRunning = false;
+        // Wait for the publishing threads which passed the running check
+        while (mEnqueuing.get() > 0) {
+            Thread.yield();
+        }
+        LockSupport.unpark(sender);
+        try {
+            sender.join();
+        } catch (InterruptedException e) {
+            logger.error("Thread join exception" + e.getMessage());
+            Thread.currentThread().interrupt();
         }
+        if (sender.isAlive()) {
+            return;
+        }
+        mSender = null;
 
-        // check whether topic contains only alphabet, digits and special
-        // characters _ - . and /
-        if (!topic.matches(TOPIC_PATTERN)) {
-            return null;
+        // Sender may have flushed before the last offers, socket is owned by
+        // this thread now
+        EMFFrame frame = null;
+        while (null != (frame = pollFrame())) {
+            writeQueuedFrame(frame);
         }
+        logger.debug("Sender thread stopped");
+    }
 
-        // check whether last character is forward slash or not
-        // if not append and return the string
-        if (!topic.endsWith("/")) {
-            topic = topic + "/";
+    private void sendQueuedFrames() {
+        int idleCount = 0;
+        EMFFrame frame = null;
+        while (mRunning) {
+            if (isXPub()) {
+                readSubscriptions();
+            }
+            frame = pollFrame();
+            if (null != frame) {
+                idleCount = 0;
+                writeQueuedFrame(frame);
+                continue;
+            }
+            if (++idleCount < SENDER_SPIN_COUNT) {
+                Thread.yield();
+                continue;
+            }
+            mSenderParked = true;
+            if (mRunning && isQueueEmpty()) {
+                LockSupport.parkNanos(SENDER_PARK_NANOS);
+            }
+            mSenderParked = false;
         }
-        return topic;
+
+        // Flush events published before stop
+        while (null != (frame = pollFrame())) {
+            writeQueuedFrame(frame);
+        }
+    }
+
+    private EMFFrame pollFrame() {
+        return (null != mConflationQueue) ? mConflationQueue.poll() : mQueue.poll();
+    }
+
+    private boolean isQueueEmpty() {
+        return (null != mConflationQueue) ? mConflationQueue.isEmpty() : mQueue.isEmpty();
+    }
+
+    private void readSubscriptions() {
+        try {
+            mTracker.drain(mPublisher);
+        } catch (Exception e) {
+            logger.error("Exception while reading subscriptions: " + e.getMessage());
+        }
+    }
+
+    private void writeQueuedFrame(EMFFrame frame) {
+        if (false == writeFrame(frame)) {
+            logger.error("Publishing queued event failed");
+            if (null != mCallback) {
+                mCallback.onErrorCB(EMFErrorCode.EMF_ERROR);
+            }
+        }
+    }
+
+    private byte[][] toTopicFrames(List<String> topics) {
+        byte[][] topicFrames = new byte[topics.size()][];
+        int index = 0;
+        for (String topic : topics) {
+            String validTopic = validateTopic(topic);
+            if (null == validTopic) {
+                logger.error("Invalid topic: " + topic);
+                return null;
+            }
+            topicFrames[index++] = validTopic.getBytes(ZMQ.CHARSET);
+        }
+        return topicFrames;
+    }
+
+    private EMFErrorCode publishOnTopics(byte[][] topicFrames, byte[] byteEvent) {
+        EMFErrorCode result = publishFrame(new EMFFrame(topicFrames, byteEvent));
+        if (EMFErrorCode.EMF_OK != result) {
+            logger.error("Publish on topic list failed");
+            return result;
+        }
+        logger.debug("Published on topics: " + topicFrames.length);
+        return EMFErrorCode.EMF_OK;
+    }
+
+    // Sender thread owns the socket in async mode and reads the
+    // subscriptions
+    private void readSubscriptionsIfSync() {
+        if (EMFPublishMode.EMF_SYNC != mMode) {
+            return;
+        }
+        try {
+            mPubLock.lock();
+            if (null != mPublisher) {
+                mTracker.drain(mPublisher);
+            }
+        } catch (Exception e) {
+            logger.error("Exception while reading subscriptions: " + e.getMessage());
+        } finally {
+            mPubLock.unlock();
+        }
+    }
+
+    // Check whether any subscriber wants the event, before it is encoded,
+    // using the subscriptions read so far
+    private boolean isWanted(byte[][] topicFrames, Event event) {
+        if (false == isXPub()) {
+            return true;
+        }
+        if (mSubscriptionTracking && false == isSubscribed(topicFrames)) {
+            logger.debug("Event topic is not subscribed");
+            return false;
+        }
+        if (mSubscriberFilters && false == mTracker.accept(event)) {
+            logger.debug("Event is not accepted by any subscriber filter");
+            return false;
+        }
+        return true;
+    }
+
+    private boolean isSubscribed(byte[][] topicFrames) {
+        // Event without topic is matched on its encoded bytes, so it is sent
+        // if there is any subscription
+        if (null == topicFrames) {
+            return mTracker.hasSubscription();
+        }
+        for (byte[] topicFrame : topicFrames) {
+            if (mTracker.isSubscribed(topicFrame)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private EMFErrorCode publishEvent(byte[][] topicFrames, Event event) {
+        // Pending subscriptions are read when the wanted event is written,
+        // and before skipping an event only if it is not wanted so far
+        if (false == isWanted(topicFrames, event)) {
+            if (EMFPublishMode.EMF_SYNC != mMode) {
+                return EMFErrorCode.EMF_OK;
+            }
+            readSubscriptionsIfSync();
+            if (false == isWanted(topicFrames, event)) {
+                return EMFErrorCode.EMF_OK;
+            }
+        }
+
+        // Socket keeps the exact-size array without copying it, so this is
+        // the only allocation of the encoded event
+        byte[] byteEvent = EMFEventConverter.toProtoBuf(event);
+        if (null == byteEvent) {
+            logger.error("byteEvent is null");
+            return EMFErrorCode.EMF_ERROR;
+        }
+        return publishFrame(new EMFFrame(topicFrames, byteEvent, event.getDevice()));
+    }
+
+    private EMFErrorCode publishFrame(EMFFrame frame) {
+        if (EMFPublishMode.EMF_SYNC != mMode) {
+            return enqueue(frame);
+        }
+        boolean result = false;
+        try {
+            mPubLock.lock();
+            if (null == mPublisher) {
+                return EMFErrorCode.EMF_ERROR;
+            }
+            if (isXPub()) {
+                readSubscriptions();
+            }
+            result = writeFrame(frame);
+        } finally {
+            mPubLock.unlock();
+        }
+        return result ? EMFErrorCode.EMF_OK : EMFErrorCode.EMF_ERROR;
+    }
+
+    // Write all frames of the chain, caller must own the socket
+    private boolean writeFrame(EMFFrame frame) {
+        try {
+            for (EMFFrame current = frame; null != current; current = current.next) {
+                if (null == current.topics) {
+                    if (false == mPublisher.send(current.data)) {
+                        return false;
+                    }
+                    continue;
+                }
+                for (byte[] topic : current.topics) {
+                    if (false == mPublisher.sendMore(topic)
+                            || false == mPublisher.send(current.data)) {
+                        return false;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Exception while publishing: " + e.getMessage());
+            if (isXPub()) {
+                // Socket may fail on a subscription message while sending
+                mTracker.fail();
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private String validateTopic(String topic) {
+        return EMFTopic.validate(topic);
     }
 
     private String getSocketAddress() {
-        return PUB_TCP_PREFIX + Integer.toString(mPort);
+        return mEndpoint.getBindAddress();
     }
 
     private static String getMonitorAddress() {
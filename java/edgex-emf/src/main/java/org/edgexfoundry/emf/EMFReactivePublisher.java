@@ -0,0 +1,194 @@
+package org.edgexfoundry.emf;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.edgexfoundry.support.logging.client.EdgeXLogger;
+import org.edgexfoundry.support.logging.client.EdgeXLoggerFactory;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Exposes the events of an {@link EMFSubscriber} in pull mode as a Reactive
+ * Streams publisher. Events are pulled from the socket only while the
+ * subscriber has demand, events not requested wait in the socket up to the
+ * receive high water mark of {@link EMFSocketOptions}, and the publisher drops
+ * the newer events beyond it.
+ *
+ * Events are signalled on a thread owned by the subscription. Publisher has
+ * one subscriber at a time, as the events of the socket can be consumed only
+ * once. Subscription completes when the {@link EMFSubscriber} is stopped, and
+ * fails if receiving the events fails.
+ *
+ * Note: On Java 9 and above, use
+ * org.reactivestreams.FlowAdapters.toFlowPublisher to get a
+ * java.util.concurrent.Flow.Publisher.
+ */
+public class EMFReactivePublisher implements Publisher<EMFTopicEvent> {
+
+    private final EMFSubscriber mSubscriber;
+    private final int mMaxBatch;
+    private final AtomicBoolean mSubscribed = new AtomicBoolean();
+
+    private final static int DEFAULT_MAX_BATCH = 64;
+    // Pulling thread checks cancellation at least this often
+    private final static long POLL_TIMEOUT_MILLIS = 100;
+    private final static EdgeXLogger logger = EdgeXLoggerFactory
+            .getEdgeXLogger(EMFReactivePublisher.class);
+
+    /**
+     * Construct publisher of the events of given subscriber.
+     *
+     * @param subscriber
+     *            {@link EMFSubscriber} in pull mode, started before
+     *            subscribing, see {@link EMFSubscriber#setPullMode}.
+     */
+    public EMFReactivePublisher(EMFSubscriber subscriber) {
+        this(subscriber, DEFAULT_MAX_BATCH);
+    }
+
+    /**
+     * Construct publisher of the events of given subscriber.
+     *
+     * @param subscriber
+     *            {@link EMFSubscriber} in pull mode, started before
+     *            subscribing, see {@link EMFSubscriber#setPullMode}.
+     * @param maxBatch
+     *            Maximum number of events pulled from the socket at once,
+     *            fewer if demand is lower.
+     */
+    public EMFReactivePublisher(EMFSubscriber subscriber, int maxBatch) {
+        mSubscriber = subscriber;
+        mMaxBatch = Math.max(1, maxBatch);
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super EMFTopicEvent> subscriber) {
+        if (null == subscriber) {
+            throw new NullPointerException("subscriber");
+        }
+        String error = null;
+        if (null == mSubscriber || false == mSubscriber.isPullMode()) {
+            error = "Subscriber is not in pull mode";
+        } else if (false == mSubscribed.compareAndSet(false, true)) {
+            error = "Publisher has a subscriber";
+        }
+        if (null != error) {
+            logger.error(error);
+            subscriber.onSubscribe(new Subscription() {
+                public void request(long n) {
+                }
+
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException(error));
+            return;
+        }
+
+        PullSubscription subscription = new PullSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        subscription.mThread.start();
+    }
+
+    private final class PullSubscription implements Subscription, Runnable {
+
+        private final Subscriber<? super EMFTopicEvent> mTarget;
+        private final AtomicLong mDemand = new AtomicLong();
+        private volatile boolean mCancelled;
+        private volatile Throwable mError;
+        final Thread mThread;
+
+        PullSubscription(Subscriber<? super EMFTopicEvent> target) {
+            mTarget = target;
+            mThread = new Thread(this, "EMFReactivePublisher");
+            mThread.setDaemon(true);
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                mError = new IllegalArgumentException("Non-positive request: " + n);
+                LockSupport.unpark(mThread);
+                return;
+            }
+            long current;
+            long next;
+            do {
+                current = mDemand.get();
+                next = current + n;
+                // Demand of Long.MAX_VALUE is unbounded
+                if (next < 0) {
+                    next = Long.MAX_VALUE;
+                }
+            } while (false == mDemand.compareAndSet(current, next));
+            LockSupport.unpark(mThread);
+        }
+
+        @Override
+        public void cancel() {
+            mCancelled = true;
+            LockSupport.unpark(mThread);
+        }
+
+        public void run() {
+            try {
+                while (false == mCancelled) {
+                    if (null != mError) {
+                        mCancelled = true;
+                        mTarget.onError(mError);
+                        break;
+                    }
+                    if (false == mSubscriber.isStarted()) {
+                        mCancelled = true;
+                        mTarget.onComplete();
+                        break;
+                    }
+                    long demand = mDemand.get();
+                    if (0 == demand) {
+                        LockSupport.park(this);
+                        continue;
+                    }
+                    List<EMFTopicEvent> events = receive(demand);
+                    if (null == events) {
+                        mCancelled = true;
+                        mTarget.onError(mError);
+                        break;
+                    }
+                    for (EMFTopicEvent event : events) {
+                        if (Long.MAX_VALUE != mDemand.get()) {
+                            mDemand.decrementAndGet();
+                        }
+                        mTarget.onNext(event);
+                    }
+                }
+            } catch (Throwable e) {
+                // Subscriber violated the specification, stop signalling it
+                logger.error("Exception from subscriber: " + e.getMessage());
+            } finally {
+                mCancelled = true;
+                mSubscribed.set(false);
+            }
+        }
+
+        // Returns null and sets the error if receiving failed
+        private List<EMFTopicEvent> receive(long demand) {
+            List<EMFTopicEvent> events = null;
+            try {
+                events = mSubscriber.receiveBatch((int) Math.min(demand, mMaxBatch),
+                        POLL_TIMEOUT_MILLIS);
+            } catch (Exception e) {
+                logger.error("Exception while receiving events: " + e.getMessage());
+                mError = e;
+                return null;
+            }
+            if (null == events) {
+                mError = new IllegalStateException("Subscriber is not in pull mode");
+            }
+            return events;
+        }
+    }
+}
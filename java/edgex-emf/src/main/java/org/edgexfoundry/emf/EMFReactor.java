@@ -0,0 +1,473 @@
+package org.edgexfoundry.emf;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.edgexfoundry.support.logging.client.EdgeXLogger;
+import org.edgexfoundry.support.logging.client.EdgeXLoggerFactory;
+import org.zeromq.ZMQ;
+import org.zeromq.ZMQ.Poller;
+
+/**
+ * Event loop receiving the events of many subscribers on a small fixed number
+ * of threads. By default every {@link EMFSubscriber} has its own receiver
+ * thread, poller and shutdown sockets; subscribers given a reactor by
+ * {@link EMFSubscriber#setReactor} are polled by one of the reactor threads
+ * instead.
+ *
+ * Note: (1) Reactor should be started before the subscribers using it, and
+ * stopped after them. (2) Callbacks of subscribers without dispatcher are
+ * invoked on the reactor thread, a slow callback delays the events of all the
+ * subscribers of that thread. Use {@link EMFDispatcher} for such callbacks.
+ */
+public class EMFReactor {
+
+    private final int mThreadCount;
+    private ZMQ.Context mContext;
+    private Loop[] mLoops;
+
+    // Loop polling each registered subscriber
+    private final Map<EMFSubscriber, Loop> mRegistered =
+            new ConcurrentHashMap<EMFSubscriber, Loop>();
+
+    // Thread safety lock
+    private ReentrantLock mReactorLock;
+
+    private final static String INPROC_PREFIX = "inproc://reactor-";
+    private final static EdgeXLogger logger = EdgeXLoggerFactory.getEdgeXLogger(EMFReactor.class);
+
+    /**
+     * Construct reactor with one thread using the default context of
+     * {@link EMFAPI}.
+     */
+    public EMFReactor() {
+        this(null, 1);
+    }
+
+    /**
+     * Construct reactor using the I/O threads of given context.
+     *
+     * @param context
+     *            Initialized {@link EMFContext}, null for the default context
+     *            of {@link EMFAPI}.
+     * @param threads
+     *            Number of reactor threads, should be at least 1. Subscribers
+     *            are spread over the threads.
+     */
+    public EMFReactor(EMFContext context, int threads) {
+        mThreadCount = threads;
+        mContext = (null == context) ? EMFAPI.getInstance().getContext() : context.getContext();
+        mReactorLock = new ReentrantLock(true);
+    }
+
+    /**
+     * Start the reactor threads.
+     *
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode start() {
+        if (null == mContext) {
+            logger.error("Context is null");
+            return EMFErrorCode.EMF_ERROR;
+        }
+        if (mThreadCount < 1) {
+            logger.error("Invalid thread count: " + mThreadCount);
+            return EMFErrorCode.EMF_ERROR;
+        }
+
+        try {
+            mReactorLock.lock();
+            if (null != mLoops) {
+                return EMFErrorCode.EMF_OK;
+            }
+            Loop[] loops = new Loop[mThreadCount];
+            try {
+                for (int i = 0; i < loops.length; i++) {
+                    loops[i] = new Loop(mContext, i);
+                }
+            } catch (Exception e) {
+                logger.error("Exception while starting reactor: " + e.getMessage());
+                for (Loop loop : loops) {
+                    if (null != loop) {
+                        loop.close();
+                    }
+                }
+                return EMFErrorCode.EMF_ERROR;
+            }
+            for (Loop loop : loops) {
+                loop.mThread.start();
+            }
+            mLoops = loops;
+        } finally {
+            mReactorLock.unlock();
+        }
+        logger.debug("Reactor started [threads]: " + mThreadCount);
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Stop the reactor threads. Subscribers still using the reactor stop
+     * receiving events.
+     *
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode stop() {
+        Loop[] loops = null;
+        try {
+            mReactorLock.lock();
+            if (null == mLoops) {
+                return EMFErrorCode.EMF_OK;
+            }
+            loops = mLoops;
+            mLoops = null;
+            for (Loop loop : loops) {
+                loop.mStopping = true;
+                loop.submit(new Command(null, (ZMQ.Socket) null));
+            }
+        } finally {
+            mReactorLock.unlock();
+        }
+
+        // Joined without the lock, as callbacks on the loop threads may stop
+        // their subscribers. Loop closes its sockets when it exits.
+        for (Loop loop : loops) {
+            if (Thread.currentThread() == loop.mThread) {
+                continue;
+            }
+            try {
+                loop.mThread.join();
+            } catch (InterruptedException e) {
+                logger.error("Thread join exception" + e.getMessage());
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            mReactorLock.lock();
+            mRegistered.values().removeAll(Arrays.asList(loops));
+        } finally {
+            mReactorLock.unlock();
+        }
+        logger.debug("Reactor stopped");
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Get the number of reactor threads.
+     *
+     * @return number of threads.
+     */
+    public int getThreadCount() {
+        return mThreadCount;
+    }
+
+    /**
+     * Get the number of subscribers using the reactor.
+     *
+     * @return number of subscribers.
+     */
+    public int getSubscriberCount() {
+        return mRegistered.size();
+    }
+
+    /**
+     * Start polling the socket of a started subscriber, on the thread having
+     * the least subscribers.
+     *
+     * @param subscriber
+     *            {@link EMFSubscriber}
+     * @param socket
+     *            Connected socket of the subscriber.
+     * @return {@link EMFErrorCode}
+     */
+    EMFErrorCode register(EMFSubscriber subscriber, ZMQ.Socket socket) {
+        try {
+            mReactorLock.lock();
+            if (null == mLoops) {
+                logger.error("Reactor is not started");
+                return EMFErrorCode.EMF_ERROR;
+            }
+            if (mRegistered.containsKey(subscriber)) {
+                return EMFErrorCode.EMF_OK;
+            }
+            Loop target = mLoops[0];
+            for (Loop loop : mLoops) {
+                if (loop.mCount < target.mCount) {
+                    target = loop;
+                }
+            }
+            target.mCount++;
+            mRegistered.put(subscriber, target);
+            target.submit(new Command(subscriber, socket));
+        } finally {
+            mReactorLock.unlock();
+        }
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Stop polling the socket of a subscriber. Returns when the reactor
+     * thread does not use the socket anymore, so that it can be closed.
+     *
+     * @param subscriber
+     *            {@link EMFSubscriber}
+     */
+    void unregister(EMFSubscriber subscriber) {
+        Command command = null;
+        Loop target = null;
+        try {
+            mReactorLock.lock();
+            target = mRegistered.remove(subscriber);
+            if (null == target) {
+                return;
+            }
+            target.mCount--;
+            if (Thread.currentThread() == target.mThread) {
+                // Called from a callback, socket is not in use
+                target.remove(subscriber);
+                return;
+            }
+            if (false == target.mStopping) {
+                command = new Command(subscriber, (ZMQ.Socket) null);
+                target.submit(command);
+            }
+        } finally {
+            mReactorLock.unlock();
+        }
+
+        try {
+            if (null != command) {
+                command.mDone.await();
+            } else {
+                // Stopping loop takes no more commands, wait for it to exit
+                target.mThread.join();
+            }
+        } catch (InterruptedException e) {
+            logger.error("Interrupted while unregistering: " + e.getMessage());
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Run a task on the reactor thread polling a subscriber.
+     *
+     * @param subscriber
+     *            {@link EMFSubscriber}
+     * @param task
+     *            Task maintaining the subscriber socket.
+     * @return {@link EMFErrorCode}, EMF_ERROR if subscriber is not
+     *         registered.
+     */
+    EMFErrorCode execute(EMFSubscriber subscriber, Runnable task) {
+        try {
+            mReactorLock.lock();
+            Loop target = mRegistered.get(subscriber);
+            if (null == target || target.mStopping) {
+                return EMFErrorCode.EMF_ERROR;
+            }
+            target.submit(new Command(subscriber, task));
+        } finally {
+            mReactorLock.unlock();
+        }
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Replace the socket polled for a subscriber, called by the subscriber on
+     * its reactor thread.
+     *
+     * @param subscriber
+     *            {@link EMFSubscriber}
+     * @param socket
+     *            Connected socket replacing the registered one.
+     * @return {@link EMFErrorCode}, EMF_ERROR if subscriber is not registered
+     *         or not called on its reactor thread.
+     */
+    EMFErrorCode replace(EMFSubscriber subscriber, ZMQ.Socket socket) {
+        try {
+            mReactorLock.lock();
+            Loop target = mRegistered.get(subscriber);
+            if (null == target || Thread.currentThread() != target.mThread) {
+                return EMFErrorCode.EMF_ERROR;
+            }
+            // Poller reuses the index of the removed socket
+            target.remove(subscriber);
+            target.add(subscriber, socket);
+        } finally {
+            mReactorLock.unlock();
+        }
+        return EMFErrorCode.EMF_OK;
+    }
+
+    // Runs task if given, registers socket if given, unregisters subscriber
+    // otherwise. Stops the loop if subscriber is null.
+    private final static class Command {
+        final EMFSubscriber mSubscriber;
+        final ZMQ.Socket mSocket;
+        final Runnable mTask;
+        final CountDownLatch mDone = new CountDownLatch(1);
+
+        Command(EMFSubscriber subscriber, ZMQ.Socket socket) {
+            mSubscriber = subscriber;
+            mSocket = socket;
+            mTask = null;
+        }
+
+        Command(EMFSubscriber subscriber, Runnable task) {
+            mSubscriber = subscriber;
+            mSocket = null;
+            mTask = task;
+        }
+    }
+
+    private final static class Loop implements Runnable {
+        // Wake up sockets, client is polled at index 0
+        private ZMQ.Socket mWakeServer;
+        private ZMQ.Socket mWakeClient;
+        private final Poller mPoller;
+        private final ConcurrentLinkedQueue<Command> mCommands =
+                new ConcurrentLinkedQueue<Command>();
+        final Thread mThread;
+
+        // Subscribers by poller index, owned by loop thread
+        private EMFSubscriber[] mSubscribers = new EMFSubscriber[8];
+
+        // Number of registered subscribers, and whether the loop is stopped
+        // and takes no more commands, guarded by reactor lock
+        int mCount;
+        boolean mStopping;
+
+        Loop(ZMQ.Context context, int index) {
+            String address = INPROC_PREFIX + UUID.randomUUID().toString();
+            mWakeServer = context.socket(ZMQ.PAIR);
+            mWakeServer.bind(address);
+            mWakeClient = context.socket(ZMQ.PAIR);
+            mWakeClient.connect(address);
+            mPoller = context.poller(mSubscribers.length);
+            mPoller.register(mWakeClient, Poller.POLLIN);
+            mThread = new Thread(this, "EMFReactor-" + index);
+        }
+
+        // Called under reactor lock
+        void submit(Command command) {
+            mCommands.offer(command);
+            mWakeServer.send(new byte[0], 0);
+        }
+
+        public void run() {
+            while (true) {
+                mPoller.poll(getBatchTimeout());
+                if (mPoller.pollin(0)) {
+                    while (null != mWakeClient.recv(ZMQ.DONTWAIT)) {
+                        // Commands are queued before the wake up message
+                    }
+                    if (false == runCommands()) {
+                        break;
+                    }
+                }
+                int next = mPoller.getNext();
+                for (int i = 1; i < next && i < mSubscribers.length; i++) {
+                    // Index of unregistered subscriber has no item
+                    if (null != mSubscribers[i] && null != mPoller.getItem(i)
+                            && mPoller.pollin(i)) {
+                        mSubscribers[i].receiveEvents();
+                    }
+                    if (null != mSubscribers[i]) {
+                        mSubscribers[i].flushExpiredBatch();
+                    }
+                }
+            }
+
+            for (int i = 1; i < mSubscribers.length; i++) {
+                if (null != mSubscribers[i]) {
+                    remove(mSubscribers[i]);
+                }
+            }
+            // Release the callers waiting for commands not run
+            Command command = null;
+            while (null != (command = mCommands.poll())) {
+                command.mDone.countDown();
+            }
+            close();
+            logger.debug("Reactor thread stopped");
+        }
+
+        // Time until the first pending batch of a subscriber should be
+        // delivered, -1 if none is pending
+        private long getBatchTimeout() {
+            long timeout = -1;
+            for (int i = 1; i < mSubscribers.length; i++) {
+                if (null != mSubscribers[i]) {
+                    long batchTimeout = mSubscribers[i].getBatchTimeout();
+                    if (batchTimeout >= 0 && (timeout < 0 || batchTimeout < timeout)) {
+                        timeout = batchTimeout;
+                    }
+                }
+            }
+            return timeout;
+        }
+
+        private boolean runCommands() {
+            Command command = null;
+            while (null != (command = mCommands.poll())) {
+                if (null == command.mSubscriber) {
+                    command.mDone.countDown();
+                    return false;
+                }
+                if (null != command.mTask) {
+                    runTask(command.mTask);
+                } else if (null != command.mSocket) {
+                    add(command.mSubscriber, command.mSocket);
+                } else {
+                    remove(command.mSubscriber);
+                }
+                command.mDone.countDown();
+            }
+            return true;
+        }
+
+        private void runTask(Runnable task) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.error("Exception from reactor task: " + e.getMessage());
+            }
+        }
+
+        // Called on loop thread, or by a subscriber on loop thread
+        void add(EMFSubscriber subscriber, ZMQ.Socket socket) {
+            int index = mPoller.register(socket, Poller.POLLIN);
+            if (index >= mSubscribers.length) {
+                mSubscribers = Arrays.copyOf(mSubscribers,
+                        Math.max(index + 1, mSubscribers.length * 2));
+            }
+            mSubscribers[index] = subscriber;
+        }
+
+        // Called on loop thread, or by a callback on loop thread
+        void remove(EMFSubscriber subscriber) {
+            for (int i = 1; i < mSubscribers.length; i++) {
+                if (subscriber == mSubscribers[i]) {
+                    mPoller.unregister(mPoller.getSocket(i));
+                    mSubscribers[i] = null;
+                    return;
+                }
+            }
+        }
+
+        void close() {
+            if (null != mWakeClient) {
+                mWakeClient.close();
+                mWakeClient = null;
+            }
+            if (null != mWakeServer) {
+                mWakeServer.close();
+                mWakeServer = null;
+            }
+        }
+    }
+}
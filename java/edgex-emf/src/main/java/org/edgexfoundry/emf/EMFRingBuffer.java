@@ -0,0 +1,132 @@
+package org.edgexfoundry.emf;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free ring buffer used by EMF for handing messages between
+ * threads. Any number of threads may offer and poll concurrently; each slot
+ * carries a sequence number so producers and consumers only contend on a
+ * single compare-and-set of the tail or head index.
+ *
+ * @param <E>
+ *            Type of the elements stored in the ring.
+ */
+final class EMFRingBuffer<E> {
+
+    private final int mMask;
+    private final AtomicReferenceArray<E> mBuffer;
+    private final AtomicLongArray mSequence;
+
+    // Next slot to be consumed
+    private final AtomicLong mHead = new AtomicLong();
+    // Next slot to be produced
+    private final AtomicLong mTail = new AtomicLong();
+
+    /**
+     * Construct ring buffer. Capacity is rounded up to the next power of two.
+     *
+     * @param capacity
+     *            Minimum number of elements the ring can hold.
+     */
+    EMFRingBuffer(int capacity) {
+        if (capacity < 1 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        mMask = size - 1;
+        mBuffer = new AtomicReferenceArray<E>(size);
+        mSequence = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            mSequence.set(i, i);
+        }
+    }
+
+    /**
+     * Add element at the tail of the ring.
+     *
+     * @param element
+     *            Element to be added, must not be null.
+     * @return false if the ring is full, true otherwise.
+     */
+    boolean offer(E element) {
+        if (null == element) {
+            throw new NullPointerException();
+        }
+        long tail;
+        int index;
+        while (true) {
+            tail = mTail.get();
+            index = (int) tail & mMask;
+            long diff = mSequence.get(index) - tail;
+            if (diff == 0) {
+                if (mTail.compareAndSet(tail, tail + 1)) {
+                    break;
+                }
+            } else if (diff < 0) {
+                return false;
+            }
+        }
+        mBuffer.lazySet(index, element);
+        mSequence.lazySet(index, tail + 1);
+        return true;
+    }
+
+    /**
+     * Remove element from the head of the ring.
+     *
+     * @return Element or null if the ring is empty.
+     */
+    E poll() {
+        long head;
+        int index;
+        while (true) {
+            head = mHead.get();
+            index = (int) head & mMask;
+            long diff = mSequence.get(index) - (head + 1);
+            if (diff == 0) {
+                if (mHead.compareAndSet(head, head + 1)) {
+                    break;
+                }
+            } else if (diff < 0) {
+                return null;
+            }
+        }
+        E element = mBuffer.get(index);
+        mBuffer.lazySet(index, null);
+        mSequence.lazySet(index, head + mMask + 1);
+        return element;
+    }
+
+    /**
+     * Check whether ring is empty.
+     *
+     * @return true if there is no element to poll.
+     */
+    boolean isEmpty() {
+        return mHead.get() >= mTail.get();
+    }
+
+    /**
+     * Get the approximate number of elements in the ring.
+     *
+     * @return number of elements.
+     */
+    int size() {
+        long size = mTail.get() - mHead.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    /**
+     * Get capacity of the ring.
+     *
+     * @return capacity as integer.
+     */
+    int capacity() {
+        return mMask + 1;
+    }
+}
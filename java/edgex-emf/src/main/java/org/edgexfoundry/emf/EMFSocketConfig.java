@@ -0,0 +1,84 @@
+package org.edgexfoundry.emf;
+
+/**
+ * Represents the socket of an {@link EMFPublisher} or {@link EMFSubscriber}:
+ * the endpoint publisher binds or subscriber connects to, the context whose
+ * I/O threads serve the socket and the socket options.
+ *
+ * Note: Configuration is read when given to publisher or subscriber, later
+ * changes are not applied.
+ */
+public class EMFSocketConfig {
+
+    private EMFEndpoint mEndpoint;
+    private EMFContext mContext;
+    private EMFSocketOptions mOptions;
+
+    /**
+     * Set the endpoint. Publisher or subscriber fails to start without an
+     * endpoint.
+     *
+     * @param endpoint
+     *            {@link EMFEndpoint}
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode setEndpoint(EMFEndpoint endpoint) {
+        mEndpoint = endpoint;
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Set the context serving the socket.
+     *
+     * Note: Publisher and subscribers of an INPROC endpoint should use the
+     * same context.
+     *
+     * @param context
+     *            Initialized {@link EMFContext}, null for the default context
+     *            of {@link EMFAPI}.
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode setContext(EMFContext context) {
+        mContext = context;
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Set the socket options.
+     *
+     * @param options
+     *            {@link EMFSocketOptions}, null for default options.
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode setOptions(EMFSocketOptions options) {
+        mOptions = options;
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Get the endpoint.
+     *
+     * @return {@link EMFEndpoint}, null if not set.
+     */
+    public EMFEndpoint getEndpoint() {
+        return mEndpoint;
+    }
+
+    /**
+     * Get the context.
+     *
+     * @return {@link EMFContext}, null if not set.
+     */
+    public EMFContext getContext() {
+        return mContext;
+    }
+
+    /**
+     * Get the socket options.
+     *
+     * @return {@link EMFSocketOptions}, null if not set.
+     */
+    public EMFSocketOptions getOptions() {
+        return mOptions;
+    }
+}
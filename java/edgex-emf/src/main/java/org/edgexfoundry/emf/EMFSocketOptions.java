@@ -0,0 +1,244 @@
+package org.edgexfoundry.emf;
+
+import org.zeromq.ZMQ;
+
+/**
+ * Represents options of the socket of an {@link EMFPublisher} or
+ * {@link EMFSubscriber}. Options are applied when the publisher or subscriber
+ * is started, before the socket is bound or connected.
+ *
+ * Option set to -1 is not applied and socket uses the ZeroMQ default.
+ *
+ * Note: Options are copied when given to publisher or subscriber, later
+ * changes are not applied.
+ */
+public class EMFSocketOptions {
+
+    private final static int DEFAULT = -1;
+
+    private int mSendHighWaterMark = DEFAULT;
+    private int mReceiveHighWaterMark = DEFAULT;
+    private int mSendBufferSize = DEFAULT;
+    private int mReceiveBufferSize = DEFAULT;
+    private int mLinger = DEFAULT;
+    private int mTcpKeepAlive = DEFAULT;
+    private long mAffinity = DEFAULT;
+
+    /**
+     * Set the maximum number of outbound messages queued for a peer, before
+     * publisher drops messages for it.
+     *
+     * @param hwm
+     *            Number of messages, 0 for no limit.
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode setSendHighWaterMark(int hwm) {
+        if (hwm < DEFAULT) {
+            return EMFErrorCode.EMF_ERROR;
+        }
+        mSendHighWaterMark = hwm;
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Set the maximum number of inbound messages queued, before subscriber
+     * drops messages.
+     *
+     * @param hwm
+     *            Number of messages, 0 for no limit.
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode setReceiveHighWaterMark(int hwm) {
+        if (hwm < DEFAULT) {
+            return EMFErrorCode.EMF_ERROR;
+        }
+        mReceiveHighWaterMark = hwm;
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Set the kernel transmit buffer size (SO_SNDBUF) of the connections.
+     *
+     * @param size
+     *            Buffer size in bytes, 0 for OS default.
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode setSendBufferSize(int size) {
+        if (size < DEFAULT) {
+            return EMFErrorCode.EMF_ERROR;
+        }
+        mSendBufferSize = size;
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Set the kernel receive buffer size (SO_RCVBUF) of the connections.
+     *
+     * @param size
+     *            Buffer size in bytes, 0 for OS default.
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode setReceiveBufferSize(int size) {
+        if (size < DEFAULT) {
+            return EMFErrorCode.EMF_ERROR;
+        }
+        mReceiveBufferSize = size;
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Set how long pending messages are kept after the socket is closed.
+     * {@link EMFAPI#terminate} waits for them to be sent.
+     *
+     * @param linger
+     *            Time in milliseconds, 0 to discard pending messages on close,
+     *            -1 to wait until they are sent.
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode setLinger(int linger) {
+        if (linger < DEFAULT) {
+            return EMFErrorCode.EMF_ERROR;
+        }
+        mLinger = linger;
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Enable or disable TCP keepalive (SO_KEEPALIVE) of the connections.
+     *
+     * Note: Probes are sent with the idle time, interval and count of the OS,
+     * jeromq does not apply the TCP_KEEPIDLE, TCP_KEEPINTVL and TCP_KEEPCNT
+     * options.
+     *
+     * @param enable
+     *            true to enable, false to disable.
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode setTcpKeepAlive(boolean enable) {
+        mTcpKeepAlive = enable ? 1 : 0;
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Set the I/O threads which may serve the connections of the socket, see
+     * {@link EMFConfig#setIOThreads}.
+     *
+     * @param affinity
+     *            Bit mask, bit n set for I/O thread n, should include an
+     *            existing thread. 0 for any thread.
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode setAffinity(long affinity) {
+        if (affinity < DEFAULT) {
+            return EMFErrorCode.EMF_ERROR;
+        }
+        mAffinity = affinity;
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Get the send high water mark.
+     *
+     * @return Option value, -1 if not set.
+     */
+    public int getSendHighWaterMark() {
+        return mSendHighWaterMark;
+    }
+
+    /**
+     * Get the receive high water mark.
+     *
+     * @return Option value, -1 if not set.
+     */
+    public int getReceiveHighWaterMark() {
+        return mReceiveHighWaterMark;
+    }
+
+    /**
+     * Get the kernel transmit buffer size.
+     *
+     * @return Option value, -1 if not set.
+     */
+    public int getSendBufferSize() {
+        return mSendBufferSize;
+    }
+
+    /**
+     * Get the kernel receive buffer size.
+     *
+     * @return Option value, -1 if not set.
+     */
+    public int getReceiveBufferSize() {
+        return mReceiveBufferSize;
+    }
+
+    /**
+     * Get the linger time.
+     *
+     * @return Option value, -1 if not set.
+     */
+    public int getLinger() {
+        return mLinger;
+    }
+
+    /**
+     * Get the TCP keepalive option.
+     *
+     * @return 1 if enabled, 0 if disabled, -1 if not set.
+     */
+    public int getTcpKeepAlive() {
+        return mTcpKeepAlive;
+    }
+
+    /**
+     * Get the I/O thread affinity.
+     *
+     * @return Option value, -1 if not set.
+     */
+    public long getAffinity() {
+        return mAffinity;
+    }
+
+    // For EMF internal use
+    EMFSocketOptions copy() {
+        EMFSocketOptions options = new EMFSocketOptions();
+        options.mSendHighWaterMark = mSendHighWaterMark;
+        options.mReceiveHighWaterMark = mReceiveHighWaterMark;
+        options.mSendBufferSize = mSendBufferSize;
+        options.mReceiveBufferSize = mReceiveBufferSize;
+        options.mLinger = mLinger;
+        options.mTcpKeepAlive = mTcpKeepAlive;
+        options.mAffinity = mAffinity;
+        return options;
+    }
+
+    /**
+     * Apply the options which are set to the socket.
+     *
+     * @param socket
+     *            Socket not bound or connected yet.
+     */
+    void apply(ZMQ.Socket socket) {
+        if (DEFAULT != mSendHighWaterMark) {
+            socket.setSndHWM(mSendHighWaterMark);
+        }
+        if (DEFAULT != mReceiveHighWaterMark) {
+            socket.setRcvHWM(mReceiveHighWaterMark);
+        }
+        if (DEFAULT != mSendBufferSize) {
+            socket.setSendBufferSize(mSendBufferSize);
+        }
+        if (DEFAULT != mReceiveBufferSize) {
+            socket.setReceiveBufferSize(mReceiveBufferSize);
+        }
+        if (DEFAULT != mLinger) {
+            socket.setLinger(mLinger);
+        }
+        if (DEFAULT != mTcpKeepAlive) {
+            socket.setTCPKeepAlive(mTcpKeepAlive);
+        }
+        if (DEFAULT != mAffinity) {
+            socket.setAffinity(mAffinity);
+        }
+    }
+}
@@ -1,7 +1,14 @@
 package org.edgexfoundry.emf;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.edgexfoundry.domain.core.Event;
@@ -11,6 +18,8 @@ import org.edgexfoundry.support.logging.client.EdgeXLoggerFactory;
 import org.zeromq.ZMQ;
 import org.zeromq.ZMQ.Poller;
 
+import zmq.Msg;
+
 /**
  * This class represents the EMF Subscriber.
  */
@@ -20,25 +29,91 @@ public class EMFSubscriber {
     private EMFSubCallback mCallback;
     private String mIp;
     private int mPort;
+    private EMFEndpoint mEndpoint;
     private Thread mThread;
 
+    // Executes callbacks, null to execute them on receiver thread
+    private EMFDispatcher mDispatcher;
+
+    // Decode readings on first access instead of on receive
+    private volatile boolean mLazyDecoding;
+
+    // Maximum number of events received per poll, and the frames received,
+    // owned by the receiving thread or the pulling thread holding the pull
+    // lock
+    private volatile int mDrainBatchSize = DEFAULT_DRAIN_BATCH_SIZE;
+    private Msg[] mDrainTopics = new Msg[0];
+    private Msg[] mDrainData = new Msg[0];
+
+    // Receives the events in batches instead of the callbacks, if set. Batch
+    // is owned by the receiving thread.
+    private volatile EMFBatchSubCallback mBatchCallback;
+    private volatile int mBatchSize = DEFAULT_BATCH_SIZE;
+    private volatile long mBatchLinger;
+    private List<EMFTopicEvent> mBatch = new ArrayList<EMFTopicEvent>();
+    private long mBatchStart;
+
+    // Callbacks of subscribed topic patterns. Topics subscribed without a
+    // callback are added with the subscriber callback.
+    private final EMFTopicRouter<EMFSubCallback> mRouter = new EMFTopicRouter<EMFSubCallback>();
+    // Number of topic patterns subscribed with a callback
+    private final AtomicInteger mRouteCount = new AtomicInteger();
+
+    // Topic names of received topic frames
+    private final EMFTopicCache mTopicCache = new EMFTopicCache();
+
+    // Events accepted by any of the filters are delivered, all the events if
+    // there is no filter
+    private final List<EMFFilterEvaluator> mFilters =
+            new CopyOnWriteArrayList<EMFFilterEvaluator>();
+
+    // Filters declared to publisher if enabled, guarded by mSubLock. Null if
+    // not declared on the current socket.
+    private volatile boolean mFilterDeclaration;
+    private List<EMFFilterEvaluator> mDeclaredFilters;
+    private int mFilterGeneration;
+    private final long mFilterOwner = UUID.randomUUID().getMostSignificantBits();
+
+    // Declarations of earlier filter generations still subscribed on the
+    // socket, guarded by mSubLock. Socket is replaced by the polling thread
+    // once they reach MAX_STALE_DECLARATIONS.
+    private int mStaleDeclarations;
+    private volatile boolean mReplaceSocket;
+
+    // Subscribed topic prefixes and their subscription count, guarded by
+    // mSubLock, subscribed again on a replaced socket
+    private final Map<String, Integer> mTopics = new HashMap<String, Integer>();
+
     // ZMQ Subscriber socket
     private ZMQ.Socket mSubscriber;
+    private EMFSocketOptions mOptions;
     private ZMQ.Context mContext;
 
     // ZMQ poller
     private Poller mPoller;
 
-    // ZMQ shut-down socket
+    // Polls the subscriber socket instead of receiver thread, if set
+    private volatile EMFReactor mReactor;
+
+    // Events are pulled by the application instead of receiver thread.
+    // Pulling thread holds the pull lock while using the poller.
+    private volatile boolean mPullMode;
+    private final ReentrantLock mPullLock = new ReentrantLock(true);
+
+    // ZMQ shut-down socket, also waking up the polling thread to replace the
+    // subscriber socket. Stopping is set before the shutdown message is sent.
     private ZMQ.Socket mShutdownServer;
     private ZMQ.Socket mShutdownClient;
+    private volatile boolean mStopping;
 
     // Thread safety lock
     private ReentrantLock mSubLock;
 
-    private final String TCP_PREFIX = "tcp://";
     private final String INPROC_PREFIX = "inproc://shutdown-";
-    private final String TOPIC_PATTERN = "[a-zA-Z0-9-_./]+";
+    private final static String REPLACE_MESSAGE = "replace";
+    private final static int DEFAULT_DRAIN_BATCH_SIZE = 32;
+    private final static int DEFAULT_BATCH_SIZE = 256;
+    private final static int MAX_STALE_DECLARATIONS = 64;
     private final static EdgeXLogger logger = EdgeXLoggerFactory
             .getEdgeXLogger(EMFSubscriber.class);
 
@@ -53,10 +128,58 @@ public class EMFSubscriber {
      *            {@link EMFCallback}
      */
     public EMFSubscriber(String ip, int port, EMFSubCallback callback) {
-        mIp = ip;
-        mPort = port;
+        this(ip, port, callback, null);
+    }
+
+    /**
+     * Subscribe to publisher at given IP and Port. Received events are
+     * decoded and delivered to the callback by the given dispatcher, so a slow
+     * callback does not stop the subscriber from receiving. Events of a topic
+     * are delivered in the order they are received.
+     *
+     * @param ip
+     *            IP address
+     * @param port
+     *            port number
+     * @param callback
+     *            {@link EMFSubCallback}
+     * @param dispatcher
+     *            {@link EMFDispatcher}, null to invoke callback on receiver
+     *            thread.
+     */
+    public EMFSubscriber(String ip, int port, EMFSubCallback callback,
+            EMFDispatcher dispatcher) {
+        this(tcpConfig(ip, port), callback, dispatcher);
+    }
+
+    /**
+     * Subscribe to publisher at the endpoint of given socket configuration.
+     *
+     * @param config
+     *            {@link EMFSocketConfig} with the endpoint to connect.
+     * @param callback
+     *            {@link EMFSubCallback}
+     * @param dispatcher
+     *            {@link EMFDispatcher}, null to invoke callback on receiver
+     *            thread.
+     */
+    public EMFSubscriber(EMFSocketConfig config, EMFSubCallback callback,
+            EMFDispatcher dispatcher) {
+        EMFContext context = null;
+        EMFSocketOptions options = null;
+        if (null != config) {
+            mEndpoint = config.getEndpoint();
+            context = config.getContext();
+            options = config.getOptions();
+        }
+        if (null != mEndpoint) {
+            mIp = mEndpoint.getHost();
+            mPort = mEndpoint.getPort();
+        }
         mCallback = callback;
-        mContext = EMFAPI.getInstance().getContext();
+        mDispatcher = dispatcher;
+        mOptions = (null == options) ? null : options.copy();
+        mContext = (null == context) ? EMFAPI.getInstance().getContext() : context.getContext();
         mSubLock = new ReentrantLock(true);
     }
 
@@ -76,6 +199,12 @@ public class EMFSubscriber {
         mSubLock = new ReentrantLock(true);
     }
 
+    private static EMFSocketConfig tcpConfig(String ip, int port) {
+        EMFSocketConfig config = new EMFSocketConfig();
+        config.setEndpoint(new EMFEndpoint(EMFEndpoint.Transport.TCP, ip, port, null));
+        return config;
+    }
+
     // finalize method to be called by Java Garbage collector before destroying
     // this object.
     @Override
@@ -109,7 +238,32 @@ public class EMFSubscriber {
     }
 
     /**
-     * Create filter as data consumer.
+     * Interface to receive events in batches from EMF subscriber, see
+     * {@link EMFSubscriber#setBatchCallback}.
+     */
+    public interface EMFBatchSubCallback {
+        /**
+         * Invoked with the events received in one receive cycle, or pending
+         * until the batch is full or its linger time elapsed.
+         *
+         * @param events
+         *            List of {@link EMFTopicEvent} in the order received,
+         *            owned by the callback.
+         */
+        public void onMessages(List<EMFTopicEvent> events);
+    }
+
+    /**
+     * Create filter as data consumer. Once a filter is created only the events
+     * accepted by at least one of the created filters are delivered to the
+     * callbacks. Event is checked against device and origin conditions before
+     * its readings are decoded.
+     *
+     * Note: Filter is compiled when created. Creating the same filter again
+     * replaces the earlier conditions with its current conditions. If enabled
+     * by {@link EMFSubscriber#setFilterDeclaration}, filters are also declared
+     * to the publisher, and filter with a device or reading name longer than
+     * 65535 bytes in UTF-8 can not be declared and is rejected.
      *
      * @param filter
      *            {@link EMFFilter}
@@ -117,9 +271,177 @@ public class EMFSubscriber {
      * @return {@link EMFErrorCode}
      */
     public EMFErrorCode createFilter(EMFFilter filter) {
+        if (null == filter) {
+            logger.error("Filter is null");
+            return EMFErrorCode.EMF_ERROR;
+        }
+        EMFFilterEvaluator evaluator = filter.compile();
+        if (mFilterDeclaration && null == evaluator.getSubscription(mFilterOwner, 0)) {
+            logger.error("Filter can not be declared to publisher");
+            return EMFErrorCode.EMF_ERROR;
+        }
+        synchronized (mFilters) {
+            removeEvaluator(filter);
+            mFilters.add(evaluator);
+        }
+        declareFilters();
+        logger.debug("Filter created");
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Remove filter created by {@link EMFSubscriber#createFilter}.
+     *
+     * @param filter
+     *            {@link EMFFilter}
+     *
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode removeFilter(EMFFilter filter) {
+        if (null == filter) {
+            logger.error("Filter is null");
+            return EMFErrorCode.EMF_ERROR;
+        }
+        synchronized (mFilters) {
+            if (false == removeEvaluator(filter)) {
+                logger.error("Filter is not created");
+                return EMFErrorCode.EMF_ERROR;
+            }
+        }
+        declareFilters();
+        logger.debug("Filter removed");
         return EMFErrorCode.EMF_OK;
     }
 
+    private boolean removeEvaluator(EMFFilter filter) {
+        for (EMFFilterEvaluator evaluator : mFilters) {
+            if (evaluator.getFilter() == filter) {
+                return mFilters.remove(evaluator);
+            }
+        }
+        return false;
+    }
+
+    // Declare the created filters to publisher if enabled, which skips the
+    // events no subscriber accepts if it is enabled by
+    // EMFPublisher#setSubscriberFilters. Subscriber without filter declares
+    // filter accepting all the events.
+    //
+    // Declarations are never un-subscribed, as publisher socket fails on
+    // un-subscription messages. A new generation is declared instead and
+    // publisher applies the latest generation; all of them are dropped by
+    // publisher when subscriber disconnects. Socket keeping too many earlier
+    // generations is replaced to drop them, see replaceSocket.
+    private void declareFilters() {
+        if (false == mFilterDeclaration) {
+            return;
+        }
+        try {
+            mSubLock.lock();
+            if (null == mSubscriber) {
+                return;
+            }
+            List<EMFFilterEvaluator> filters = new ArrayList<EMFFilterEvaluator>(mFilters);
+            if (filters.equals(mDeclaredFilters)) {
+                return;
+            }
+            int generation = ++mFilterGeneration;
+            if (filters.isEmpty()) {
+                EMFFilterEvaluator all = new EMFFilter().compile();
+                mSubscriber.subscribe(all.getSubscription(mFilterOwner, generation));
+            }
+            for (EMFFilterEvaluator filter : filters) {
+                mSubscriber.subscribe(filter.getSubscription(mFilterOwner, generation));
+            }
+            if (null != mDeclaredFilters) {
+                mStaleDeclarations += Math.max(1, mDeclaredFilters.size());
+            }
+            mDeclaredFilters = filters;
+            if (mStaleDeclarations >= MAX_STALE_DECLARATIONS && false == mReplaceSocket) {
+                requestSocketReplacement();
+            }
+        } catch (Exception e) {
+            logger.error("Exception while declaring filters: " + e.getMessage());
+        } finally {
+            mSubLock.unlock();
+        }
+    }
+
+    // Wake up the thread polling the socket to replace it. Called under
+    // mSubLock.
+    private void requestSocketReplacement() {
+        mReplaceSocket = true;
+        if (null != mReactor) {
+            mReactor.execute(this, new Runnable() {
+                public void run() {
+                    drainAndReplaceSocket();
+                }
+            });
+        } else if (null != mShutdownServer) {
+            mShutdownServer.send(REPLACE_MESSAGE);
+        }
+    }
+
+    // Deliver the events ready on the socket and replace it. Called on the
+    // receiver or reactor thread.
+    private void drainAndReplaceSocket() {
+        int batchSize = mDrainBatchSize;
+        while (receiveEvents() >= batchSize) {
+            // Socket may have more events ready
+        }
+        replaceSocket();
+    }
+
+    // Replace the subscriber socket by a socket subscribing the current topics
+    // and filter generation only. Publisher drops the declarations of the
+    // earlier generations when the old socket disconnects. Events still in
+    // flight to the old socket, or published before the new one is
+    // subscribed, are not received. Called on the thread polling the socket.
+    private void replaceSocket() {
+        ZMQ.Socket socket = null;
+        try {
+            mSubLock.lock();
+            if (false == mReplaceSocket || null == mSubscriber) {
+                return;
+            }
+            mReplaceSocket = false;
+            socket = mContext.socket(ZMQ.SUB);
+            if (null != mOptions) {
+                mOptions.apply(socket);
+            }
+            socket.connect(getSocketAddress());
+            for (Map.Entry<String, Integer> topic : mTopics.entrySet()) {
+                for (int i = 0; i < topic.getValue(); i++) {
+                    socket.subscribe(topic.getKey().getBytes());
+                }
+            }
+            if (null != mReactor && EMFErrorCode.EMF_OK != mReactor.replace(this, socket)) {
+                // Subscriber is being stopped
+                socket.close();
+                return;
+            }
+            if (null != mPoller) {
+                // Poller reuses the index of the removed socket
+                mPoller.unregister(mSubscriber);
+                mPoller.register(socket);
+            }
+            mSubscriber.close();
+            mSubscriber = socket;
+            socket = null;
+            mDeclaredFilters = null;
+            mStaleDeclarations = 0;
+            declareFilters();
+            logger.debug("Subscriber socket replaced");
+        } catch (Exception e) {
+            logger.error("Exception while replacing socket: " + e.getMessage());
+            if (null != socket) {
+                socket.close();
+            }
+        } finally {
+            mSubLock.unlock();
+        }
+    }
+
     /**
      * Starts SUB instance.
      *
@@ -130,6 +452,14 @@ public class EMFSubscriber {
             logger.error("Context is null");
             return EMFErrorCode.EMF_ERROR;
         }
+        if (null == mEndpoint) {
+            logger.error("Endpoint is null");
+            return EMFErrorCode.EMF_ERROR;
+        }
+
+        if (null != mReactor) {
+            return startOnReactor();
+        }
 
         String address = getInProcUniqueAddress();
         try {
@@ -149,7 +479,11 @@ public class EMFSubscriber {
             // Subscriber socket
             if (null == mSubscriber) {
                 mSubscriber = mContext.socket(ZMQ.SUB);
+                if (null != mOptions) {
+                    mOptions.apply(mSubscriber);
+                }
                 mSubscriber.connect(getSocketAddress());
+                declareFilters();
             }
 
             // Register sockets to poller
@@ -165,8 +499,8 @@ public class EMFSubscriber {
             return EMFErrorCode.EMF_ERROR;
         }
 
-        // Receiver thread
-        if (null == mThread) {
+        // Receiver thread, events are pulled by the application in pull mode
+        if (null == mThread && false == mPullMode) {
             mThread = new Thread(new Runnable() {
                 public void run() {
                     receive();
@@ -180,8 +514,35 @@ public class EMFSubscriber {
         return EMFErrorCode.EMF_OK;
     }
 
+    private EMFErrorCode startOnReactor() {
+        try {
+            mSubLock.lock();
+            if (null == mSubscriber) {
+                mSubscriber = mContext.socket(ZMQ.SUB);
+                if (null != mOptions) {
+                    mOptions.apply(mSubscriber);
+                }
+                mSubscriber.connect(getSocketAddress());
+                declareFilters();
+            }
+        } catch (Exception e) {
+            logger.error("Exception while starting subscriber: " + e.getMessage());
+            mSubLock.unlock();
+            stop();
+            return EMFErrorCode.EMF_ERROR;
+        }
+        mSubLock.unlock();
+
+        if (EMFErrorCode.EMF_OK != mReactor.register(this, mSubscriber)) {
+            stop();
+            return EMFErrorCode.EMF_ERROR;
+        }
+        logger.debug("Subscriber registered to reactor");
+        return EMFErrorCode.EMF_OK;
+    }
+
     private String getSocketAddress() {
-        return TCP_PREFIX + mIp + ":" + mPort;
+        return mEndpoint.getConnectAddress();
     }
 
     private String getInProcUniqueAddress() {
@@ -195,7 +556,11 @@ public class EMFSubscriber {
      * @return {@link EMFErrorCode}
      */
     public EMFErrorCode subscribe() {
-        return subscribeInternal("");
+        EMFErrorCode result = subscribeInternal("");
+        if (EMFErrorCode.EMF_OK == result) {
+            addDefaultRoute("");
+        }
+        return result;
     }
 
     /**
@@ -218,7 +583,62 @@ public class EMFSubscriber {
             return EMFErrorCode.EMF_INVALID_TOPIC;
         }
         logger.debug("Topic is: " + validTopic);
-        return subscribeInternal(validTopic);
+        EMFErrorCode result = subscribeInternal(validTopic);
+        if (EMFErrorCode.EMF_OK == result) {
+            addDefaultRoute(validTopic);
+            mTopicCache.addTopic(validTopic);
+        }
+        return result;
+    }
+
+    /**
+     * Subscribe for event/messages on topics matching the given pattern, and
+     * deliver them to the given callback. Event is delivered to the callbacks
+     * of all the matching patterns, the subscriber callback being the callback
+     * of the topics subscribed without one. Callback subscribed for more than
+     * one matching pattern receives an event once.
+     *
+     * Note (1) Topic name should be as path format. For example:
+     * home/livingroom/ (2) Topic name can have letters [a-z, A-z], numerics
+     * [0-9] and special characters _ - . and / (3) Topic will be appended with
+     * forward slash [/] in case, if application has not appended it. (4)
+     * Pattern matches the topics it is a prefix of, for example home/ matches
+     * home/livingroom/. (5) Segment + matches any single segment of a topic,
+     * for example home/+/temperature/ matches home/kitchen/temperature/.
+     *
+     * @param topic
+     *            Topic pattern to be subscribed.
+     * @param callback
+     *            {@link EMFSubCallback} for the events of the matching
+     *            topics.
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode subscribe(String topic, EMFSubCallback callback) {
+        if (null == callback) {
+            logger.error("Callback is null");
+            return EMFErrorCode.EMF_ERROR;
+        }
+
+        // validate the topic pattern
+        String validTopic = validateTopicPattern(topic);
+        if (null == validTopic) {
+            logger.error("Invalid topic: " + topic);
+            return EMFErrorCode.EMF_INVALID_TOPIC;
+        }
+        logger.debug("Topic is: " + validTopic);
+
+        // Route before subscribing so that first events are not missed
+        mRouter.add(validTopic, callback);
+        mRouteCount.incrementAndGet();
+        String prefix = EMFTopicRouter.getPrefix(validTopic);
+        EMFErrorCode result = subscribeInternal(prefix);
+        if (EMFErrorCode.EMF_OK != result) {
+            mRouter.remove(validTopic, callback);
+            mRouteCount.decrementAndGet();
+        } else if (prefix.equals(validTopic)) {
+            mTopicCache.addTopic(validTopic);
+        }
+        return result;
     }
 
     private EMFErrorCode subscribeInternal(String topic) {
@@ -232,6 +652,8 @@ public class EMFSubscriber {
             mSubLock.lock();
             if (null != mSubscriber) {
                 mSubscriber.subscribe(topic.getBytes());
+                Integer count = mTopics.get(topic);
+                mTopics.put(topic, (null == count) ? 1 : count + 1);
             } else {
                 return EMFErrorCode.EMF_ERROR;
             }
@@ -272,52 +694,246 @@ public class EMFSubscriber {
         return result;
     }
 
-    private void receive() {
-        byte[] data = null;
-        byte[] topicBytes = null;
-        Event event = null;
+    private void deliver(String topic, ByteBuffer data) {
+        // Find callbacks before decoding, events which are received only for a
+        // wildcard pattern and match none of the patterns are dropped
+        List<EMFSubCallback> callbacks = null;
+        if (null != topic && mRouteCount.get() > 0) {
+            callbacks = mRouter.match(topic);
+            if (callbacks.isEmpty()) {
+                logger.debug("No callback for topic: " + topic);
+                return;
+            }
+        }
+
+        Event event = decode(data);
+        if (null == event) {
+            return;
+        }
+        if (null == topic) {
+            mCallback.onMessageCB(event);
+        } else if (null == callbacks) {
+            mCallback.onMessageCB(topic, event);
+        } else {
+            for (EMFSubCallback callback : callbacks) {
+                callback.onMessageCB(topic, event);
+            }
+        }
+    }
+
+    private Event decode(ByteBuffer data) {
+        if (mFilters.isEmpty()) {
+            return mLazyDecoding ? EMFEventConverter.toLazyEdgeXEventFromBuffer(data)
+                    : EMFEventConverter.toEdgeXEventFromBuffer(data);
+        }
+        return decodeFiltered(data);
+    }
+
+    private Event decodeFiltered(ByteBuffer data) {
+        // Reject on event fields before the readings are decoded
+        Event event = EMFEventConverter.toLazyEdgeXEventFromBuffer(data);
+        if (null == event) {
+            return null;
+        }
+        boolean accepted = false;
+        for (EMFFilterEvaluator filter : mFilters) {
+            if (filter.acceptHeader(event)) {
+                accepted = true;
+                break;
+            }
+        }
+        if (false == accepted) {
+            logger.debug("Event rejected by filters");
+            return null;
+        }
+
+        if (false == mLazyDecoding) {
+            event = EMFEventConverter.toEdgeXEventFromBuffer(data);
+            if (null == event) {
+                return null;
+            }
+        }
+        for (EMFFilterEvaluator filter : mFilters) {
+            if (filter.accept(event)) {
+                return event;
+            }
+        }
+        logger.debug("Event rejected by filters");
+        return null;
+    }
 
+    private void receive() {
         while (null != mThread && !mThread.isInterrupted()) {
             if (null == mSubscriber || null == mPoller) {
                 logger.error("Subscriber or poller is null");
                 return;
             }
 
-            mPoller.poll();
+            mPoller.poll(getBatchTimeout());
             if (mPoller.pollin(0)) {
-                try {
-                    mSubLock.lock();
-                    if (null != mSubscriber) {
-                        data = mSubscriber.recv();
-                        if (mSubscriber.hasReceiveMore()) {
-                            topicBytes = data;
-                            data = mSubscriber.recv();
-                        }
-                    }
-                } catch (Exception e) {
-                    logger.error("Exception while receiving: " + e.getMessage());
-                } finally {
-                    mSubLock.unlock();
+                receiveEvents();
+            } else if (mPoller.pollin(1)) {
+                mShutdownClient.recv(ZMQ.DONTWAIT);
+                if (mStopping) {
+                    logger.debug("Received shut down request");
+                    break;
                 }
+                drainAndReplaceSocket();
+            }
+            flushExpiredBatch();
+        }
+    }
 
-                logger.debug("Event received");
-                event = EMFEventConverter.toEdgeXEvent(data);
-                if (null != event) {
-                    if (null == topicBytes) {
-                        mCallback.onMessageCB(event);
-                    } else {
-                        String recvTopic = new String(topicBytes);
-                        logger.debug("Topic: " + recvTopic);
-                        mCallback.onMessageCB(recvTopic, event);
+    /**
+     * Receive the events ready on the subscriber socket, up to the drain
+     * batch size, and deliver them. Called by the receiver thread or
+     * {@link EMFReactor} when the socket is readable.
+     *
+     * @return number of events received.
+     */
+    int receiveEvents() {
+        // Closed socket has no events to receive
+        int count = Math.max(0, drainFrames(mDrainBatchSize));
+        for (int i = 0; i < count; i++) {
+            receiveEvent(mDrainTopics[i], mDrainData[i]);
+            mDrainTopics[i] = null;
+            mDrainData[i] = null;
+        }
+        if (0 == mBatchLinger) {
+            flushBatch();
+        }
+        return count;
+    }
+
+    /**
+     * Receive the frames of the events ready on the subscriber socket into
+     * the drain frames, up to max and the drain batch size. Called by the
+     * receiving thread.
+     *
+     * @param max
+     *            Maximum number of events.
+     * @return number of events received, -1 if socket is closed.
+     */
+    private int drainFrames(int max) {
+        int batchSize = mDrainBatchSize;
+        if (mDrainData.length != batchSize) {
+            mDrainTopics = new Msg[batchSize];
+            mDrainData = new Msg[batchSize];
+        }
+        max = Math.min(max, batchSize);
+
+        // Frames are received as messages to decode the event directly from
+        // the frame buffer without copying it. Socket is read without
+        // blocking under a single lock until no event is ready.
+        int count = 0;
+        try {
+            mSubLock.lock();
+            if (null == mSubscriber) {
+                return -1;
+            }
+            while (count < max) {
+                Msg data = mSubscriber.base().recv(ZMQ.DONTWAIT);
+                if (null == data) {
+                    break;
+                }
+                Msg topicMsg = null;
+                if (data.hasMore()) {
+                    // Remaining frames of a message arrive with the first one
+                    topicMsg = data;
+                    data = mSubscriber.base().recv(ZMQ.DONTWAIT);
+                    if (null == data) {
+                        logger.error("Failed to receive event");
+                        break;
                     }
                 }
-            } else if (mPoller.pollin(1)) {
-                logger.debug("Received shut down request");
-                break;
+                mDrainTopics[count] = topicMsg;
+                mDrainData[count] = data;
+                count++;
             }
+        } catch (Exception e) {
+            logger.error("Exception while receiving: " + e.getMessage());
+        } finally {
+            mSubLock.unlock();
+        }
+        return count;
+    }
+
+    private void receiveEvent(Msg topicMsg, Msg data) {
+        logger.debug("Event received");
+        String recvTopic = null;
+        if (null != topicMsg) {
+            recvTopic = mTopicCache.getTopic(topicMsg.data());
+            logger.debug("Topic: " + recvTopic);
+        }
+        if (null != mBatchCallback) {
+            addToBatch(recvTopic, data.buf());
+        } else if (null == mDispatcher) {
+            deliver(recvTopic, data.buf());
+        } else {
+            final String taskTopic = recvTopic;
+            final ByteBuffer taskData = data.buf();
+            mDispatcher.dispatch(taskTopic, new Runnable() {
+                public void run() {
+                    deliver(taskTopic, taskData);
+                }
+            });
+        }
+    }
 
-            data = null;
-            topicBytes = null;
+    private void addToBatch(String topic, ByteBuffer data) {
+        Event event = decode(data);
+        if (null == event) {
+            return;
+        }
+        if (mBatch.isEmpty()) {
+            mBatchStart = System.nanoTime();
+        }
+        mBatch.add(new EMFTopicEvent(topic, event));
+        if (mBatch.size() >= mBatchSize) {
+            flushBatch();
+        }
+    }
+
+    /**
+     * Get the time until the pending batch should be delivered. Called on
+     * the receiving thread.
+     *
+     * @return Time in milliseconds, -1 if no batch is pending.
+     */
+    long getBatchTimeout() {
+        if (mBatch.isEmpty()) {
+            return -1;
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - mBatchStart);
+        return Math.max(0, mBatchLinger - elapsed);
+    }
+
+    /**
+     * Deliver the pending batch if its linger time elapsed. Called on the
+     * receiving thread.
+     */
+    void flushExpiredBatch() {
+        if (0 == getBatchTimeout()) {
+            flushBatch();
+        }
+    }
+
+    private void flushBatch() {
+        final EMFBatchSubCallback callback = mBatchCallback;
+        if (mBatch.isEmpty() || null == callback) {
+            return;
+        }
+        final List<EMFTopicEvent> batch = mBatch;
+        mBatch = new ArrayList<EMFTopicEvent>();
+        if (null == mDispatcher) {
+            callback.onMessages(batch);
+        } else {
+            // Batches are kept in order as the events of a topic
+            mDispatcher.dispatch(null, new Runnable() {
+                public void run() {
+                    callback.onMessages(batch);
+                }
+            });
         }
     }
 
@@ -327,7 +943,11 @@ public class EMFSubscriber {
      * @return {@link EMFErrorCode}
      */
     public EMFErrorCode unSubscribe() {
-        return unSubscribeInternal("");
+        EMFErrorCode result = unSubscribeInternal("");
+        if (EMFErrorCode.EMF_OK == result) {
+            removeDefaultRoute("");
+        }
+        return result;
     }
 
     /**
@@ -350,8 +970,55 @@ public class EMFSubscriber {
             return EMFErrorCode.EMF_INVALID_TOPIC;
         }
         logger.debug("Topic is: " + validTopic);
-        return unSubscribeInternal(topic);
+        EMFErrorCode result = unSubscribeInternal(validTopic);
+        if (EMFErrorCode.EMF_OK == result) {
+            removeDefaultRoute(validTopic);
+        }
+        return result;
+    }
 
+    /**
+     * Un-subscribe the callback from a topic pattern subscribed by
+     * {@link EMFSubscriber#subscribe(String, EMFSubCallback)}.
+     *
+     * @param topic
+     *            Topic pattern to be unsubscribed.
+     * @param callback
+     *            {@link EMFSubCallback} subscribed for the pattern.
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode unSubscribe(String topic, EMFSubCallback callback) {
+        if (null == callback) {
+            logger.error("Callback is null");
+            return EMFErrorCode.EMF_ERROR;
+        }
+
+        // validate the topic pattern
+        String validTopic = validateTopicPattern(topic);
+        if (null == validTopic) {
+            logger.error("Invalid topic: " + topic);
+            return EMFErrorCode.EMF_INVALID_TOPIC;
+        }
+        logger.debug("Topic is: " + validTopic);
+
+        if (false == mRouter.remove(validTopic, callback)) {
+            logger.error("Callback is not subscribed for topic: " + validTopic);
+            return EMFErrorCode.EMF_ERROR;
+        }
+        mRouteCount.decrementAndGet();
+        return unSubscribeInternal(EMFTopicRouter.getPrefix(validTopic));
+    }
+
+    private void addDefaultRoute(String topic) {
+        if (null != mCallback) {
+            mRouter.add(topic, mCallback);
+        }
+    }
+
+    private void removeDefaultRoute(String topic) {
+        if (null != mCallback) {
+            mRouter.remove(topic, mCallback);
+        }
     }
 
     private EMFErrorCode unSubscribeInternal(String topic) {
@@ -364,6 +1031,12 @@ public class EMFSubscriber {
             mSubLock.lock();
             if (null != mSubscriber) {
                 mSubscriber.unsubscribe(topic.getBytes());
+                Integer count = mTopics.get(topic);
+                if (null != count && count > 1) {
+                    mTopics.put(topic, count - 1);
+                } else {
+                    mTopics.remove(topic);
+                }
             } else {
                 return EMFErrorCode.EMF_ERROR;
             }
@@ -409,24 +1082,54 @@ public class EMFSubscriber {
      * @return {@link EMFErrorCode}
      */
     public EMFErrorCode stop() {
+        // Reactor thread takes the lock to receive, wait for it to release
+        // the socket before locking
+        if (null != mReactor) {
+            mReactor.unregister(this);
+        }
 
+        // Wake up the receiver thread or the thread pulling events, and wait
+        // for it without holding the lock it takes to receive
+        Thread thread = wakeReceiver();
         try {
-            mSubLock.lock();
+            if (null != thread && Thread.currentThread() != thread) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            logger.error("Thread join exception" + e.getMessage());
+        }
+        if (false == mPullMode) {
+            return closeSockets();
+        }
+        try {
+            mPullLock.lock();
+            return closeSockets();
+        } finally {
+            mPullLock.unlock();
+        }
+    }
 
+    private Thread wakeReceiver() {
+        try {
+            mSubLock.lock();
             // Send a shutdown message to receiver thread
+            mStopping = true;
             if (null != mShutdownServer) {
                 boolean result = mShutdownServer.send("shutdown");
                 logger.debug("Shutdown send result: " + result);
             }
+            return mThread;
+        } catch (Exception e) {
+            logger.error("Exception while waking up receiver: " + e.getMessage());
+            return null;
+        } finally {
+            mSubLock.unlock();
+        }
+    }
 
-            // wait for receiver thread to stop
-            try {
-                if (null != mThread) {
-                    mThread.join();
-                }
-            } catch (InterruptedException e) {
-                logger.error("Thread join exception" + e.getMessage());
-            }
+    private EMFErrorCode closeSockets() {
+        try {
+            mSubLock.lock();
 
             // Unregister sockets from poller
             if (null != mPoller) {
@@ -448,6 +1151,11 @@ public class EMFSubscriber {
             }
 
             mSubscriber = null;
+            mDeclaredFilters = null;
+            mStaleDeclarations = 0;
+            mReplaceSocket = false;
+            mTopics.clear();
+            mStopping = false;
             mPoller = null;
             mShutdownClient = null;
             mShutdownServer = null;
@@ -459,6 +1167,8 @@ public class EMFSubscriber {
             mSubLock.unlock();
         }
 
+        // Receiving thread is stopped, deliver the pending batch
+        flushBatch();
         logger.debug("Subscriber stopped");
         return EMFErrorCode.EMF_OK;
     }
@@ -481,6 +1191,16 @@ public class EMFSubscriber {
         return mPort;
     }
 
+    /**
+     * Get the endpoint of the subscriber.
+     *
+     * @return {@link EMFEndpoint}, null if subscriber is created with service
+     *         name.
+     */
+    public EMFEndpoint getEndpoint() {
+        return mEndpoint;
+    }
+
     /**
      * Get the service name.
      *
@@ -490,15 +1210,415 @@ public class EMFSubscriber {
         return mServiceName;
     }
 
+    /**
+     * Set the reactor polling the subscriber socket. Subscriber using a
+     * reactor does not create its own receiver thread, events are received
+     * and callbacks invoked on a reactor thread unless a dispatcher is given.
+     *
+     * Note: Should be called before {@link EMFSubscriber#start}, reactor
+     * should be started before the subscriber.
+     *
+     * @param reactor
+     *            Started {@link EMFReactor}, null to use a receiver thread.
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode setReactor(EMFReactor reactor) {
+        try {
+            mSubLock.lock();
+            if (null != mSubscriber) {
+                logger.error("Subscriber is already started");
+                return EMFErrorCode.EMF_ERROR;
+            }
+            if (null != reactor && mPullMode) {
+                logger.error("Subscriber is in pull mode");
+                return EMFErrorCode.EMF_ERROR;
+            }
+            mReactor = reactor;
+        } finally {
+            mSubLock.unlock();
+        }
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Get the reactor polling the subscriber socket.
+     *
+     * @return {@link EMFReactor}, null if subscriber uses a receiver thread.
+     */
+    public EMFReactor getReactor() {
+        return mReactor;
+    }
+
+    /**
+     * Set the maximum number of events received from the socket per poll.
+     * Ready events are read without blocking under a single lock, and
+     * delivered before the socket is polled again.
+     *
+     * @param size
+     *            Number of events, 32 by default, 1 to receive an event per
+     *            poll.
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode setDrainBatchSize(int size) {
+        if (size < 1) {
+            logger.error("Invalid drain batch size: " + size);
+            return EMFErrorCode.EMF_ERROR;
+        }
+        mDrainBatchSize = size;
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Get the maximum number of events received from the socket per poll.
+     *
+     * @return number of events.
+     */
+    public int getDrainBatchSize() {
+        return mDrainBatchSize;
+    }
+
+    /**
+     * Enable or disable declaring the created filters to the publisher, which
+     * then skips the events none of its subscribers accept, see
+     * {@link EMFPublisher#setSubscriberFilters}. Filters are declared as
+     * subscriptions of the socket, so should be enabled only for EMF
+     * publishers. Subscriber socket is replaced after many filter changes to
+     * drop the earlier declarations, events in flight to it are lost then.
+     *
+     * Note: Should be called before {@link EMFSubscriber#start}.
+     *
+     * @param enable
+     *            true to declare filters, false by default.
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode setFilterDeclaration(boolean enable) {
+        try {
+            mSubLock.lock();
+            if (null != mSubscriber) {
+                logger.error("Subscriber is already started");
+                return EMFErrorCode.EMF_ERROR;
+            }
+            if (enable) {
+                for (EMFFilterEvaluator evaluator : mFilters) {
+                    if (null == evaluator.getSubscription(mFilterOwner, 0)) {
+                        logger.error("Filter can not be declared to publisher");
+                        return EMFErrorCode.EMF_ERROR;
+                    }
+                }
+            }
+            mFilterDeclaration = enable;
+        } finally {
+            mSubLock.unlock();
+        }
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Check whether filters are declared to the publisher.
+     *
+     * @return true if enabled.
+     */
+    public boolean isFilterDeclaration() {
+        return mFilterDeclaration;
+    }
+
+    /**
+     * Enable or disable pull mode. In pull mode subscriber has no receiver
+     * thread and does not invoke the callbacks, application receives the
+     * events on its own thread by {@link EMFSubscriber#poll} and
+     * {@link EMFSubscriber#receiveBatch}. Events not pulled wait in the
+     * socket, up to the receive high water mark of {@link EMFSocketOptions}.
+     *
+     * Note: Should be called before {@link EMFSubscriber#start}. Subscriber
+     * in pull mode can not use a reactor.
+     *
+     * @param enable
+     *            true to pull events, false by default.
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode setPullMode(boolean enable) {
+        try {
+            mSubLock.lock();
+            if (null != mSubscriber) {
+                logger.error("Subscriber is already started");
+                return EMFErrorCode.EMF_ERROR;
+            }
+            if (enable && null != mReactor) {
+                logger.error("Subscriber uses a reactor");
+                return EMFErrorCode.EMF_ERROR;
+            }
+            mPullMode = enable;
+        } finally {
+            mSubLock.unlock();
+        }
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Check whether subscriber is in pull mode.
+     *
+     * @return true if events are pulled by application.
+     */
+    public boolean isPullMode() {
+        return mPullMode;
+    }
+
+    // Check whether subscriber socket is open
+    boolean isStarted() {
+        try {
+            mSubLock.lock();
+            return null != mSubscriber;
+        } finally {
+            mSubLock.unlock();
+        }
+    }
+
+    /**
+     * Receive an event in pull mode, on the calling thread. Events rejected
+     * by the filters are skipped.
+     *
+     * Note: (1) Events are pulled by one thread at a time, other callers
+     * wait. (2) Topic callbacks are not invoked and events of all the
+     * subscribed topic prefixes are returned.
+     *
+     * @param timeout
+     *            Time in milliseconds to wait for an event, 0 to return
+     *            immediately, -1 to wait until an event is received or
+     *            subscriber is stopped.
+     * @return {@link EMFTopicEvent}, null if no event is received in time,
+     *         subscriber is stopped or not in pull mode.
+     */
+    public EMFTopicEvent poll(long timeout) {
+        List<EMFTopicEvent> events = pull(1, timeout);
+        return (null == events || events.isEmpty()) ? null : events.get(0);
+    }
+
+    /**
+     * Receive events in pull mode, on the calling thread. Waits for the first
+     * event up to the timeout, then returns it with the events already
+     * received, without waiting more, see {@link EMFSubscriber#poll}.
+     *
+     * @param max
+     *            Maximum number of events to return.
+     * @param timeout
+     *            Time in milliseconds to wait for the first event, 0 to
+     *            return immediately, -1 to wait until an event is received or
+     *            subscriber is stopped.
+     * @return List of {@link EMFTopicEvent} in the order received, empty if
+     *         no event is received in time or subscriber is stopped. Null if
+     *         max is invalid or subscriber is not in pull mode.
+     */
+    public List<EMFTopicEvent> receiveBatch(int max, long timeout) {
+        if (max < 1) {
+            logger.error("Invalid max: " + max);
+            return null;
+        }
+        return pull(max, timeout);
+    }
+
+    private List<EMFTopicEvent> pull(int max, long timeout) {
+        if (false == mPullMode) {
+            logger.error("Subscriber is not in pull mode");
+            return null;
+        }
+
+        List<EMFTopicEvent> events = new ArrayList<EMFTopicEvent>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        try {
+            mPullLock.lock();
+            while (true) {
+                if (false == pullReady(events, max) || false == events.isEmpty()) {
+                    return events;
+                }
+                if (mStopping) {
+                    return events;
+                }
+                // Socket is replaced once its ready events are pulled
+                replaceSocket();
+                Poller poller = mPoller;
+                if (null == poller) {
+                    return events;
+                }
+                long remaining = -1;
+                if (timeout >= 0) {
+                    remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                    if (remaining <= 0) {
+                        return events;
+                    }
+                }
+                poller.poll(remaining);
+                if (poller.pollin(1)) {
+                    // Woken up to replace the socket or to stop
+                    mShutdownClient.recv(ZMQ.DONTWAIT);
+                }
+            }
+        } finally {
+            mPullLock.unlock();
+        }
+    }
+
+    // Add the events ready on the socket, returns false if socket is closed
+    private boolean pullReady(List<EMFTopicEvent> events, int max) {
+        while (events.size() < max) {
+            int count = drainFrames(max - events.size());
+            if (count <= 0) {
+                return 0 == count;
+            }
+            for (int i = 0; i < count; i++) {
+                Event event = decode(mDrainData[i].buf());
+                if (null != event) {
+                    String topic = (null == mDrainTopics[i]) ? null
+                            : mTopicCache.getTopic(mDrainTopics[i].data());
+                    events.add(new EMFTopicEvent(topic, event));
+                }
+                mDrainTopics[i] = null;
+                mDrainData[i] = null;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Deliver the events to a batch callback, with the events received in one
+     * receive cycle in a batch. Suitable for applications writing the events
+     * in bulk.
+     *
+     * Note: (1) Should be called before {@link EMFSubscriber#start}. (2)
+     * Events are delivered to the batch callback only, topic callbacks of
+     * {@link EMFSubscriber#subscribe(String, EMFSubCallback)} are not
+     * invoked and events of all the subscribed topic prefixes are delivered.
+     * (3) With dispatcher, batches are delivered on the dispatcher in order.
+     *
+     * @param callback
+     *            {@link EMFBatchSubCallback}, null to deliver events to the
+     *            callbacks.
+     * @param batchSize
+     *            Maximum number of events in a batch.
+     * @param lingerMillis
+     *            Maximum time in milliseconds an event waits for the batch to
+     *            fill, 0 to deliver the events of every receive cycle
+     *            immediately.
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode setBatchCallback(EMFBatchSubCallback callback, int batchSize,
+            long lingerMillis) {
+        if (batchSize < 1 || lingerMillis < 0) {
+            logger.error("Invalid batch size or linger: " + batchSize + ", " + lingerMillis);
+            return EMFErrorCode.EMF_ERROR;
+        }
+        try {
+            mSubLock.lock();
+            if (null != mSubscriber) {
+                logger.error("Subscriber is already started");
+                return EMFErrorCode.EMF_ERROR;
+            }
+            mBatchCallback = callback;
+            mBatchSize = batchSize;
+            mBatchLinger = lingerMillis;
+        } finally {
+            mSubLock.unlock();
+        }
+        return EMFErrorCode.EMF_OK;
+    }
+
+    /**
+     * Deliver the events of every receive cycle to a batch callback, see
+     * {@link EMFSubscriber#setBatchCallback(EMFBatchSubCallback, int, long)}.
+     *
+     * @param callback
+     *            {@link EMFBatchSubCallback}, null to deliver events to the
+     *            callbacks.
+     * @return {@link EMFErrorCode}
+     */
+    public EMFErrorCode setBatchCallback(EMFBatchSubCallback callback) {
+        return setBatchCallback(callback, DEFAULT_BATCH_SIZE, 0);
+    }
+
+    /**
+     * Get the batch callback.
+     *
+     * @return {@link EMFBatchSubCallback}, null if not set.
+     */
+    public EMFBatchSubCallback getBatchCallback() {
+        return mBatchCallback;
+    }
+
+    /**
+     * Get the maximum number of events in a batch.
+     *
+     * @return number of events.
+     */
+    public int getBatchSize() {
+        return mBatchSize;
+    }
+
+    /**
+     * Get the maximum time an event waits for the batch to fill.
+     *
+     * @return Time in milliseconds.
+     */
+    public long getBatchLinger() {
+        return mBatchLinger;
+    }
+
+    /**
+     * Enable or disable lazy decoding of received events. With lazy decoding
+     * only the event fields are decoded on receive, readings are decoded on
+     * the first call to {@link Event#getReadings}. Suitable for applications
+     * which route events on device or origin without reading the readings.
+     *
+     * Note: Event with invalid readings is delivered to the callback and its
+     * getReadings returns an empty list.
+     *
+     * @param lazyDecoding
+     *            true to decode readings lazily, false by default.
+     */
+    public void setLazyDecoding(boolean lazyDecoding) {
+        mLazyDecoding = lazyDecoding;
+    }
+
+    /**
+     * Check whether lazy decoding of received events is enabled.
+     *
+     * @return true if readings are decoded lazily.
+     */
+    public boolean isLazyDecoding() {
+        return mLazyDecoding;
+    }
+
+    /**
+     * Get the ratio of received topics found in the topic cache of the
+     * subscriber. Subscribed topics and the first 1024 distinct topics
+     * received are cached, other topics are decoded for every event.
+     *
+     * @return Hit ratio from 0.0 to 1.0, or 0.0 if no topic is received.
+     */
+    public double getTopicCacheHitRatio() {
+        long hits = mTopicCache.getHits();
+        long total = hits + mTopicCache.getMisses();
+        return (0 == total) ? 0.0 : (double) hits / total;
+    }
+
     private String validateTopic(String topic) {
+        return EMFTopic.validate(topic);
+    }
+
+    private String validateTopicPattern(String topic) {
         if (null == topic || topic.isEmpty()) {
             return null;
         }
 
-        // check whether topic contains only alphabet, digits and special
-        // characters _ - . and /
-        if (!topic.matches(TOPIC_PATTERN)) {
-            return null;
+        // check whether every segment contains only alphabet, digits and
+        // special characters _ - . or is a wildcard
+        for (String segment : topic.split("/", -1)) {
+            if (segment.equals(EMFTopicRouter.WILDCARD)) {
+                continue;
+            }
+            for (int i = 0; i < segment.length(); i++) {
+                if (false == EMFTopic.isValidChar(segment.charAt(i))) {
+                    return null;
+                }
+            }
         }
 
         // check whether last character is forward slash or not
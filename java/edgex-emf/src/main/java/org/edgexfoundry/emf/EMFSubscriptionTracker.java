@@ -0,0 +1,265 @@
+package org.edgexfoundry.emf;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.edgexfoundry.domain.core.Event;
+import org.zeromq.ZMQ;
+
+/**
+ * Tracks the topic subscriptions and the filters declared by subscribers on
+ * an XPUB socket of {@link EMFPublisher}. XPUB socket reports a subscription
+ * when the first subscriber subscribes it and an un-subscription when the
+ * last subscriber having it un-subscribes or disconnects, so tracker keeps
+ * the subscriptions which at least one connected subscriber has.
+ *
+ * Subscribers do not withdraw filters, they declare a new generation of
+ * filters instead and only the latest generation of each subscriber is
+ * applied. Earlier generations are dropped once a later one is received, so
+ * tracker keeps one generation per subscriber.
+ *
+ * Subscriptions are read on the thread owning the socket, filters are
+ * evaluated by any publishing thread.
+ *
+ * Note: jeromq 0.4.2 XPUB socket fails on every un-subscription message of a
+ * connected subscriber, and the subscriptions received after it may not be
+ * reported. Once the socket failed, tracker reports every topic as subscribed
+ * and every event as accepted. Un-subscriptions of disconnected subscribers
+ * are reported without failure.
+ */
+final class EMFSubscriptionTracker {
+
+    private final static byte SUBSCRIBE = 1;
+    private final static Charset KEY_CHARSET = Charset.forName("ISO-8859-1");
+
+    // Filters declared by subscribers, keyed by subscription, and the latest
+    // generation declared by each subscriber having a declaration
+    private final Map<String, Declaration> mDeclarations = new HashMap<String, Declaration>();
+    private final Map<Long, Integer> mGenerations = new HashMap<Long, Integer>();
+
+    // Topic subscriptions, matched as prefixes of the first frame
+    private final Set<String> mTopics = new HashSet<String>();
+    private volatile byte[][] mTopicFrames = new byte[0][];
+
+    // Filters of the latest generation of each subscriber
+    private volatile EMFFilterEvaluator[] mActive = new EMFFilterEvaluator[0];
+
+    // Set once subscriptions may have been missed, nothing is skipped then
+    private volatile boolean mFailed;
+
+    /**
+     * Read all the pending subscription messages from the socket without
+     * blocking. Caller must own the socket.
+     *
+     * @param socket
+     *            XPUB socket.
+     */
+    void drain(ZMQ.Socket socket) {
+        byte[] message = null;
+        try {
+            while (null != (message = socket.recv(ZMQ.DONTWAIT))) {
+                onSubscription(message);
+            }
+        } catch (RuntimeException e) {
+            fail();
+            throw e;
+        }
+    }
+
+    /**
+     * Stop tracking after the socket failed, subscriptions may be missed
+     * from then on.
+     */
+    void fail() {
+        mFailed = true;
+    }
+
+    /**
+     * Check whether the socket failed, see {@link #fail}.
+     *
+     * @return true if failed.
+     */
+    boolean isFailed() {
+        return mFailed;
+    }
+
+    /**
+     * Update the tracked subscriptions with a message received on XPUB socket.
+     * Caller must own the socket.
+     *
+     * @param message
+     *            First byte is 1 for subscription, 0 for un-subscription.
+     */
+    void onSubscription(byte[] message) {
+        if (message.length < 1) {
+            return;
+        }
+        // Subscription bytes map one to one to ISO-8859-1 characters
+        String key = new String(message, 1, message.length - 1, KEY_CHARSET);
+        if (false == EMFFilter.isFilterSubscription(message, 1)) {
+            boolean changed = SUBSCRIBE == message[0] ? mTopics.add(key) : mTopics.remove(key);
+            if (changed) {
+                updateTopics();
+            }
+            return;
+        }
+        if (SUBSCRIBE == message[0]) {
+            if (false == addDeclaration(key, message)) {
+                return;
+            }
+        } else if (false == removeDeclaration(key)) {
+            return;
+        }
+        updateActive();
+    }
+
+    /**
+     * Check whether any subscriber subscribed a topic.
+     *
+     * @return true if there is a topic subscription, or the socket failed.
+     */
+    boolean hasSubscription() {
+        return mFailed || mTopicFrames.length > 0;
+    }
+
+    /**
+     * Check whether any subscription matches the topic frame.
+     *
+     * @param frame
+     *            Topic frame.
+     * @return true if a subscription is a prefix of the frame, or the socket
+     *         failed.
+     */
+    boolean isSubscribed(byte[] frame) {
+        if (mFailed) {
+            return true;
+        }
+        for (byte[] subscription : mTopicFrames) {
+            if (startsWith(frame, subscription)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check whether any subscriber declared a filter accepting the event.
+     *
+     * @param event
+     *            {@link Event}
+     * @return true if event is accepted, no filter is declared or the socket
+     *         failed.
+     */
+    boolean accept(Event event) {
+        EMFFilterEvaluator[] active = mActive;
+        if (mFailed || 0 == active.length) {
+            return true;
+        }
+        for (EMFFilterEvaluator filter : active) {
+            if (filter.accept(event)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the number of filters applied, of the latest generation of each
+     * connected subscriber.
+     *
+     * @return number of filters.
+     */
+    int getFilterCount() {
+        return mActive.length;
+    }
+
+    private static boolean startsWith(byte[] frame, byte[] prefix) {
+        if (prefix.length > frame.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (frame[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void updateTopics() {
+        byte[][] frames = new byte[mTopics.size()][];
+        int index = 0;
+        for (String topic : mTopics) {
+            frames[index++] = topic.getBytes(KEY_CHARSET);
+        }
+        mTopicFrames = frames;
+    }
+
+    // Add a declaration, dropping the earlier generations of its subscriber.
+    // Returns false if it is not added.
+    private boolean addDeclaration(String key, byte[] message) {
+        EMFFilter filter = EMFFilter.fromSubscription(message, 1);
+        if (null == filter) {
+            return false;
+        }
+        long owner = EMFFilter.getSubscriptionOwner(message, 1);
+        int generation = EMFFilter.getSubscriptionGeneration(message, 1);
+        Integer latest = mGenerations.get(owner);
+        if (null != latest && generation < latest) {
+            // Superseded, generations may be received in any order on
+            // reconnection
+            return false;
+        }
+        if (null == latest || generation > latest) {
+            Iterator<Declaration> iterator = mDeclarations.values().iterator();
+            while (iterator.hasNext()) {
+                if (owner == iterator.next().owner) {
+                    iterator.remove();
+                }
+            }
+            mGenerations.put(owner, generation);
+        }
+        mDeclarations.put(key, new Declaration(owner, generation, filter.compile()));
+        return true;
+    }
+
+    // Remove a declaration, returns false if it is not tracked
+    private boolean removeDeclaration(String key) {
+        Declaration removed = mDeclarations.remove(key);
+        if (null == removed) {
+            return false;
+        }
+        for (Declaration declaration : mDeclarations.values()) {
+            if (removed.owner == declaration.owner) {
+                return true;
+            }
+        }
+        mGenerations.remove(removed.owner);
+        return true;
+    }
+
+    private void updateActive() {
+        List<EMFFilterEvaluator> active = new ArrayList<EMFFilterEvaluator>();
+        for (Declaration declaration : mDeclarations.values()) {
+            active.add(declaration.filter);
+        }
+        mActive = active.toArray(new EMFFilterEvaluator[active.size()]);
+    }
+
+    private final static class Declaration {
+        final long owner;
+        final int generation;
+        final EMFFilterEvaluator filter;
+
+        Declaration(long owner, int generation, EMFFilterEvaluator filter) {
+            this.owner = owner;
+            this.generation = generation;
+            this.filter = filter;
+        }
+    }
+}
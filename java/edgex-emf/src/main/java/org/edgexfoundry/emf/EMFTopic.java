@@ -0,0 +1,111 @@
+package org.edgexfoundry.emf;
+
+import org.zeromq.ZMQ;
+
+/**
+ * Represents a topic validated and normalized once, for publishing many
+ * events on the same topic. Topic frame is encoded when the topic is created
+ * and reused by every publish.
+ *
+ * Note (1) Topic name should be as path format. For example:
+ * home/livingroom/ (2) Topic name can have letters [a-z, A-z], numerics [0-9]
+ * and special characters _ - . and / (3) Topic will be appended with forward
+ * slash [/] in case, if application has not appended it.
+ */
+public final class EMFTopic {
+
+    private final String mName;
+    // Single topic frame, as expected by publisher
+    private final byte[][] mFrames;
+
+    private EMFTopic(String name) {
+        mName = name;
+        mFrames = new byte[][] { name.getBytes(ZMQ.CHARSET) };
+    }
+
+    /**
+     * Create topic from topic name.
+     *
+     * @param topic
+     *            Topic name.
+     * @return {@link EMFTopic} or null if topic name is invalid.
+     */
+    public static EMFTopic create(String topic) {
+        String validTopic = validate(topic);
+        if (null == validTopic) {
+            return null;
+        }
+        return new EMFTopic(validTopic);
+    }
+
+    /**
+     * Get the normalized topic name, ending with forward slash.
+     *
+     * @return Topic name.
+     */
+    public String getName() {
+        return mName;
+    }
+
+    // For EMF internal use, returned arrays must not be modified
+    byte[][] getFrames() {
+        return mFrames;
+    }
+
+    /**
+     * Validate and normalize topic name. Topic is checked character by
+     * character, without regular expression or allocation for a topic which
+     * already ends with forward slash.
+     *
+     * @param topic
+     *            Topic name.
+     * @return Topic name ending with forward slash, or null if invalid.
+     */
+    static String validate(String topic) {
+        if (null == topic || topic.isEmpty()) {
+            return null;
+        }
+
+        // check whether topic contains only alphabet, digits and special
+        // characters _ - . and /
+        int length = topic.length();
+        for (int i = 0; i < length; i++) {
+            if (false == isValidChar(topic.charAt(i))) {
+                return null;
+            }
+        }
+
+        // check whether last character is forward slash or not
+        // if not append and return the string
+        if (topic.charAt(length - 1) != '/') {
+            topic = topic + "/";
+        }
+        return topic;
+    }
+
+    static boolean isValidChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '_' || c == '.' || c == '/';
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (false == (obj instanceof EMFTopic)) {
+            return false;
+        }
+        return mName.equals(((EMFTopic) obj).mName);
+    }
+
+    @Override
+    public int hashCode() {
+        return mName.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return mName;
+    }
+}
@@ -0,0 +1,141 @@
+package org.edgexfoundry.emf;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.zeromq.ZMQ;
+
+/**
+ * Cache of received topic frames to topic names, so the topic of a received
+ * event is looked up by its bytes instead of being decoded into a new string.
+ * Subscribed topics are added up front, other received topics are added when
+ * first decoded until the cache is full. Entries are never removed.
+ *
+ * Lookups are lock-free; any number of threads may look up and add topics.
+ */
+final class EMFTopicCache {
+
+    private final static int DEFAULT_CAPACITY = 1024;
+
+    private final AtomicReferenceArray<Entry> mTable;
+    private final int mMask;
+    private final int mCapacity;
+    private final AtomicInteger mSize = new AtomicInteger();
+
+    private final AtomicLong mHits = new AtomicLong();
+    private final AtomicLong mMisses = new AtomicLong();
+
+    EMFTopicCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Construct topic cache.
+     *
+     * @param capacity
+     *            Maximum number of topics cached.
+     */
+    EMFTopicCache(int capacity) {
+        // Two to four slots per cached topic, a quarter for a power of two
+        // capacity, so the table is at most half full and probe sequences
+        // stay short
+        int size = Integer.highestOneBit(Math.max(1, capacity)) << 2;
+        mTable = new AtomicReferenceArray<Entry>(size);
+        mMask = size - 1;
+        mCapacity = capacity;
+    }
+
+    /**
+     * Get the topic name of a received topic frame. Decodes and caches the
+     * topic if it is not cached yet.
+     *
+     * @param frame
+     *            Received topic frame.
+     * @return Topic name.
+     */
+    String getTopic(byte[] frame) {
+        int hash = Arrays.hashCode(frame);
+        Entry entry = find(frame, hash);
+        if (null != entry) {
+            mHits.incrementAndGet();
+            return entry.topic;
+        }
+        mMisses.incrementAndGet();
+        String topic = new String(frame, ZMQ.CHARSET);
+        add(new Entry(frame.clone(), hash, topic));
+        return topic;
+    }
+
+    /**
+     * Add topic name to the cache, if the cache is not full.
+     *
+     * @param topic
+     *            Topic name.
+     */
+    void addTopic(String topic) {
+        byte[] frame = topic.getBytes(ZMQ.CHARSET);
+        add(new Entry(frame, Arrays.hashCode(frame), topic));
+    }
+
+    int size() {
+        return mSize.get();
+    }
+
+    long getHits() {
+        return mHits.get();
+    }
+
+    long getMisses() {
+        return mMisses.get();
+    }
+
+    private Entry find(byte[] frame, int hash) {
+        int index = hash & mMask;
+        Entry entry = null;
+        while (null != (entry = mTable.get(index))) {
+            if (entry.hash == hash && Arrays.equals(entry.frame, frame)) {
+                return entry;
+            }
+            index = (index + 1) & mMask;
+        }
+        return null;
+    }
+
+    private void add(Entry entry) {
+        int index = entry.hash & mMask;
+        while (true) {
+            Entry current = mTable.get(index);
+            if (null == current) {
+                // Reserve space first so the table never exceeds capacity
+                if (mSize.incrementAndGet() > mCapacity) {
+                    mSize.decrementAndGet();
+                    return;
+                }
+                if (mTable.compareAndSet(index, null, entry)) {
+                    return;
+                }
+                mSize.decrementAndGet();
+                // Slot taken by another thread, check it again
+                continue;
+            }
+            if (current.hash == entry.hash && Arrays.equals(current.frame, entry.frame)) {
+                return;
+            }
+            index = (index + 1) & mMask;
+        }
+    }
+
+    private final static class Entry {
+        final byte[] frame;
+        final int hash;
+        final String topic;
+
+        Entry(byte[] frame, int hash, String topic) {
+            this.frame = frame;
+            this.hash = hash;
+            this.topic = topic;
+        }
+    }
+}
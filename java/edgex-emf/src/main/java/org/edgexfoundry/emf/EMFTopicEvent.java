@@ -0,0 +1,53 @@
+package org.edgexfoundry.emf;
+
+import org.edgexfoundry.domain.core.Event;
+
+/**
+ * Represents an EdgeX event together with the topic it is published on.
+ */
+public class EMFTopicEvent {
+
+    private final String mTopic;
+    private final Event mEvent;
+
+    /**
+     * Construct event without topic.
+     *
+     * @param event
+     *            {@link Event}
+     */
+    public EMFTopicEvent(Event event) {
+        this(null, event);
+    }
+
+    /**
+     * Construct event on a specific topic.
+     *
+     * @param topic
+     *            Topic of the event, null for event without topic.
+     * @param event
+     *            {@link Event}
+     */
+    public EMFTopicEvent(String topic, Event event) {
+        mTopic = topic;
+        mEvent = event;
+    }
+
+    /**
+     * Get the topic of the event.
+     *
+     * @return Topic or null if event has no topic.
+     */
+    public String getTopic() {
+        return mTopic;
+    }
+
+    /**
+     * Get the event.
+     *
+     * @return {@link Event}
+     */
+    public Event getEvent() {
+        return mEvent;
+    }
+}
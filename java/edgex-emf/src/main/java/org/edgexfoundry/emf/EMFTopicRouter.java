@@ -0,0 +1,186 @@
+package org.edgexfoundry.emf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Index of topic patterns to handlers, organized as a tree of topic segments
+ * separated by forward slash [/]. A pattern matches the topics it is a
+ * segment prefix of, the same as a subscription on ZMQ socket, so pattern
+ * home/ matches home/livingroom/. Segment + in a pattern matches any single
+ * segment, so home/+/temp/ matches home/livingroom/temp/ and
+ * home/kitchen/temp/sensor1/.
+ *
+ * Matching walks the tree once along the topic, only the handlers of
+ * matching patterns are visited. Patterns can be added and removed while
+ * topics are being matched.
+ *
+ * @param <T>
+ *            Type of the handlers.
+ */
+final class EMFTopicRouter<T> {
+
+    final static String WILDCARD = "+";
+    private final static char SEPARATOR = '/';
+
+    private final Node<T> mRoot = new Node<T>(null, null);
+
+    /**
+     * Add handler for the pattern. Same handler can be added any number of
+     * times, it needs to be removed as many times.
+     *
+     * @param pattern
+     *            Valid topic pattern ending with forward slash, or empty to
+     *            match all the topics.
+     * @param handler
+     *            Handler to be added.
+     */
+    synchronized void add(String pattern, T handler) {
+        Node<T> node = mRoot;
+        int start = 0;
+        while (start < pattern.length()) {
+            int end = segmentEnd(pattern, start);
+            node = node.getOrAddChild(pattern.substring(start, end));
+            start = end + 1;
+        }
+        node.handlers.add(handler);
+    }
+
+    /**
+     * Remove handler for the pattern.
+     *
+     * @param pattern
+     *            Pattern given to {@link EMFTopicRouter#add}.
+     * @param handler
+     *            Handler to be removed.
+     * @return true if handler was added for the pattern.
+     */
+    synchronized boolean remove(String pattern, T handler) {
+        Node<T> node = mRoot;
+        int start = 0;
+        while (start < pattern.length() && null != node) {
+            int end = segmentEnd(pattern, start);
+            node = node.getChild(pattern.substring(start, end));
+            start = end + 1;
+        }
+        if (null == node || false == node.handlers.remove(handler)) {
+            return false;
+        }
+        // Release the nodes which no longer lead to any handler
+        while (null != node.parent && node.isEmpty()) {
+            node.parent.removeChild(node);
+            node = node.parent;
+        }
+        return true;
+    }
+
+    /**
+     * Get the handlers of all the patterns matching the topic. Handler added
+     * for more than one matching pattern is returned once.
+     *
+     * @param topic
+     *            Topic of received event.
+     * @return List of handlers, empty if no pattern matches.
+     */
+    List<T> match(String topic) {
+        List<T> handlers = new ArrayList<T>();
+        match(mRoot, topic, 0, handlers);
+        return handlers;
+    }
+
+    /**
+     * Get the part of the pattern before the first wildcard segment, that is
+     * the subscription needed on ZMQ socket to receive all the topics matching
+     * the pattern.
+     *
+     * @param pattern
+     *            Valid topic pattern.
+     * @return Prefix of the pattern, empty if pattern starts with wildcard.
+     */
+    static String getPrefix(String pattern) {
+        int start = 0;
+        while (start < pattern.length()) {
+            int end = segmentEnd(pattern, start);
+            if (WILDCARD.equals(pattern.substring(start, end))) {
+                return pattern.substring(0, start);
+            }
+            start = end + 1;
+        }
+        return pattern;
+    }
+
+    private static <T> void match(Node<T> node, String topic, int start, List<T> handlers) {
+        for (T handler : node.handlers) {
+            if (false == handlers.contains(handler)) {
+                handlers.add(handler);
+            }
+        }
+        if (start >= topic.length()) {
+            return;
+        }
+        int end = segmentEnd(topic, start);
+        Node<T> child = node.getChild(topic.substring(start, end));
+        if (null != child) {
+            match(child, topic, end + 1, handlers);
+        }
+        Node<T> wildcard = node.wildcard;
+        if (null != wildcard) {
+            match(wildcard, topic, end + 1, handlers);
+        }
+    }
+
+    private static int segmentEnd(String topic, int start) {
+        int end = topic.indexOf(SEPARATOR, start);
+        return (end < 0) ? topic.length() : end;
+    }
+
+    private final static class Node<T> {
+
+        final Node<T> parent;
+        final String segment;
+        final List<T> handlers = new CopyOnWriteArrayList<T>();
+        final ConcurrentMap<String, Node<T>> children = new ConcurrentHashMap<String, Node<T>>();
+        volatile Node<T> wildcard;
+
+        Node(Node<T> parent, String segment) {
+            this.parent = parent;
+            this.segment = segment;
+        }
+
+        Node<T> getChild(String segment) {
+            if (WILDCARD.equals(segment)) {
+                return wildcard;
+            }
+            return children.get(segment);
+        }
+
+        Node<T> getOrAddChild(String segment) {
+            Node<T> child = getChild(segment);
+            if (null != child) {
+                return child;
+            }
+            child = new Node<T>(this, segment);
+            if (WILDCARD.equals(segment)) {
+                wildcard = child;
+            } else {
+                children.put(segment, child);
+            }
+            return child;
+        }
+
+        void removeChild(Node<T> child) {
+            if (WILDCARD.equals(child.segment)) {
+                wildcard = null;
+            } else {
+                children.remove(child.segment);
+            }
+        }
+
+        boolean isEmpty() {
+            return handlers.isEmpty() && children.isEmpty() && null == wildcard;
+        }
+    }
+}
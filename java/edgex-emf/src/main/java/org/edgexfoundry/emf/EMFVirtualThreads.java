@@ -0,0 +1,49 @@
+package org.edgexfoundry.emf;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates executors running every task on a new virtual thread.
+ *
+ * This is the Java 8 version of the class, it looks up the virtual thread
+ * executor reflectively so it also works when the multi-release jar is
+ * flattened. On Java 21 and above the version of this class under
+ * META-INF/versions/21 is loaded instead.
+ */
+final class EMFVirtualThreads {
+
+    private final static Method FACTORY = findFactory();
+
+    private EMFVirtualThreads() {
+    }
+
+    static boolean isSupported() {
+        return null != FACTORY;
+    }
+
+    /**
+     * Create virtual thread per task executor.
+     *
+     * @return Executor or null if virtual threads are not supported.
+     */
+    static ExecutorService newExecutor() {
+        if (null == FACTORY) {
+            return null;
+        }
+        try {
+            return (ExecutorService) FACTORY.invoke(null);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static Method findFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -1,11 +1,20 @@
 package org.edgexfoundry.emf.protobufevent;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
 import org.edgexfoundry.domain.core.Event;
 import org.edgexfoundry.domain.core.Reading;
-import org.edgexfoundry.emf.protobufevent.EMFProtoEvent.Event.Builder;
 import org.edgexfoundry.support.logging.client.EdgeXLogger;
 import org.edgexfoundry.support.logging.client.EdgeXLoggerFactory;
 
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
+
 /**
  * This class represents the EMFEventConverter It provides methods to convert
  * edgeX message to protocol buffer message.
@@ -24,35 +33,88 @@ public class EMFEventConverter {
      */
     public static byte[] toProtoBuf(Event event) {
 
-        if (null == event) {
+        int size = getSerializedSize(event);
+        if (size < 0) {
             return null;
         }
-
-        org.edgexfoundry.emf.protobufevent.EMFProtoEvent.Event protoEventObj = null;
-        org.edgexfoundry.emf.protobufevent.EMFProtoEvent.Event protoEvent = null;
+        // Written straight from the event and its readings
+        byte[] data = new byte[size];
         try {
+            CodedOutputStream output = CodedOutputStream.newInstance(data);
+            writeEvent(output, event);
+            output.checkNoSpaceLeft();
+        } catch (Exception e) {
+            logger.error("toProtoBuf: Failed to write event", e.getMessage());
+            return null;
+        }
+        return data;
+    }
 
-            protoEventObj = new org.edgexfoundry.emf.protobufevent.EMFProtoEvent.Event(event);
-            Builder eventbuild = EMFProtoEvent.Event.newBuilder();
-            eventbuild.setEdgeXReading(event);
-
-            for (Reading reading : event.getReadings()) {
-                org.edgexfoundry.emf.protobufevent.EMFProtoEvent.Reading protoReading = new org.edgexfoundry.emf.protobufevent.EMFProtoEvent.Reading(
-                        reading);
-                org.edgexfoundry.emf.protobufevent.EMFProtoEvent.Reading.Builder readingBuild = EMFProtoEvent.Reading
-                        .newBuilder();
-                readingBuild.setEdgeXReading(reading);
-                eventbuild.addReading(readingBuild);
+    /**
+     * Get the size of EdgeX event converted to protocol buffer event.
+     *
+     * @param event
+     *            {@link Event}
+     * @return Size in bytes, or -1 if event can not be converted.
+     */
+    public static int getSerializedSize(Event event) {
+
+        if (null == event || null == event.getId() || null == event.getDevice()
+                || null == event.getReadings()) {
+            return -1;
+        }
+        int size = CodedOutputStream.computeStringSize(1, event.getId())
+                + CodedOutputStream.computeInt64Size(2, event.getCreated())
+                + CodedOutputStream.computeInt64Size(3, event.getModified())
+                + CodedOutputStream.computeInt64Size(4, event.getOrigin())
+                + CodedOutputStream.computeInt64Size(5, event.getPushed())
+                + CodedOutputStream.computeStringSize(6, event.getDevice());
+        for (Reading reading : event.getReadings()) {
+            int readingSize = getReadingSize(reading);
+            if (readingSize < 0) {
+                return -1;
             }
+            size += CodedOutputStream.computeTagSize(7)
+                    + CodedOutputStream.computeUInt32SizeNoTag(readingSize) + readingSize;
+        }
+        return size;
+    }
 
-            protoEvent = eventbuild.build();
-        } catch (Exception e) {
-            logger.error("toEvent: Invalid byte array", e.getMessage());
+    // Field numbers and order are as per Event.proto and generated encoder
+    private static int getReadingSize(Reading reading) {
+        if (null == reading || null == reading.getId() || null == reading.getName()
+                || null == reading.getValue() || null == reading.getDevice()) {
+            return -1;
         }
-        if (null == protoEvent) {
-            return null;
+        return CodedOutputStream.computeStringSize(1, reading.getId())
+                + CodedOutputStream.computeInt64Size(2, reading.getCreated())
+                + CodedOutputStream.computeInt64Size(3, reading.getModified())
+                + CodedOutputStream.computeInt64Size(4, reading.getOrigin())
+                + CodedOutputStream.computeInt64Size(5, reading.getPushed())
+                + CodedOutputStream.computeStringSize(6, reading.getName())
+                + CodedOutputStream.computeStringSize(7, reading.getValue())
+                + CodedOutputStream.computeStringSize(8, reading.getDevice());
+    }
+
+    private static void writeEvent(CodedOutputStream output, Event event) throws IOException {
+        output.writeString(1, event.getId());
+        output.writeInt64(2, event.getCreated());
+        output.writeInt64(3, event.getModified());
+        output.writeInt64(4, event.getOrigin());
+        output.writeInt64(5, event.getPushed());
+        output.writeString(6, event.getDevice());
+        for (Reading reading : event.getReadings()) {
+            output.writeTag(7, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(getReadingSize(reading));
+            output.writeString(1, reading.getId());
+            output.writeInt64(2, reading.getCreated());
+            output.writeInt64(3, reading.getModified());
+            output.writeInt64(4, reading.getOrigin());
+            output.writeInt64(5, reading.getPushed());
+            output.writeString(6, reading.getName());
+            output.writeString(7, reading.getValue());
+            output.writeString(8, reading.getDevice());
         }
-        return protoEvent.toByteArray();
     }
 
     /**
@@ -68,15 +130,253 @@ public class EMFEventConverter {
         if (null == event) {
             return null;
         }
+        return toEdgeXEvent(CodedInputStream.newInstance(event));
+    }
+
+    /**
+     * Convert Protocol buffer event in a byte buffer to edgeX event. Event is
+     * decoded directly from the backing array of a heap buffer into EdgeX
+     * event and readings, without copying the bytes or building intermediate
+     * protocol buffer messages. Buffer position is not modified.
+     *
+     * @param event
+     *            Heap or direct byte buffer to be converted to Event.
+     *
+     * @return EdgeX event.
+     */
+    public static Event toEdgeXEventFromBuffer(ByteBuffer event) {
+
+        if (null == event) {
+            return null;
+        }
+        if (event.hasArray()) {
+            return toEdgeXEvent(CodedInputStream.newInstance(event.array(),
+                    event.arrayOffset() + event.position(), event.remaining()));
+        }
+        // Unsafe direct buffer decoder of protobuf is not reliable on all the
+        // JVMs, direct buffer is copied
+        byte[] data = new byte[event.remaining()];
+        event.duplicate().get(data);
+        return toEdgeXEvent(CodedInputStream.newInstance(data));
+    }
+
+    /**
+     * Convert byte[] array of Protocol buffer event to edgeX event, decoding
+     * only the event fields. Readings are decoded from the byte array on the
+     * first call to {@link Event#getReadings}, so byte array must not be
+     * modified afterwards.
+     *
+     * Note: Invalid readings are detected only when they are decoded, in
+     * which case getReadings returns an empty list.
+     *
+     * @param event
+     *            Byte array to be converted to Event.
+     *
+     * @return EdgeX event.
+     */
+    public static Event toLazyEdgeXEvent(byte[] event) {
+
+        if (null == event) {
+            return null;
+        }
+        return toLazyEdgeXEvent(event, 0, event.length);
+    }
+
+    /**
+     * Convert Protocol buffer event in a byte buffer to edgeX event, decoding
+     * only the event fields. Readings are decoded on the first call to
+     * {@link Event#getReadings}, from the backing array of a heap buffer or
+     * from a copy of a direct buffer. Backing array must not be modified
+     * afterwards. Buffer position is not modified.
+     *
+     * Note: Invalid readings are detected only when they are decoded, in
+     * which case getReadings returns an empty list.
+     *
+     * @param event
+     *            Heap or direct byte buffer to be converted to Event.
+     *
+     * @return EdgeX event.
+     */
+    public static Event toLazyEdgeXEventFromBuffer(ByteBuffer event) {
+
+        if (null == event) {
+            return null;
+        }
+        if (event.hasArray()) {
+            return toLazyEdgeXEvent(event.array(), event.arrayOffset() + event.position(),
+                    event.remaining());
+        }
+        byte[] data = new byte[event.remaining()];
+        event.duplicate().get(data);
+        return toLazyEdgeXEvent(data, 0, data.length);
+    }
+
+    private static Event toLazyEdgeXEvent(byte[] data, int offset, int length) {
+        EMFLazyEvent edgexEvent = new EMFLazyEvent(data, offset, length);
+        try {
+            readEvent(CodedInputStream.newInstance(data, offset, length), edgexEvent, false);
+        } catch (Exception e) {
+            logger.error("toEvent: Invalid byte array", e.getMessage());
+            return null;
+        }
+        return edgexEvent;
+    }
+
+    // Decode readings of an event decoded by toLazyEdgeXEvent
+    static List<Reading> readReadings(byte[] data, int offset, int length) {
+        List<Reading> readings = new ArrayList<Reading>();
+        try {
+            CodedInputStream input = CodedInputStream.newInstance(data, offset, length);
+            boolean done = false;
+            while (!done) {
+                int tag = input.readTag();
+                if (0 == tag) {
+                    done = true;
+                } else if (58 == tag) {
+                    readings.add(readNestedReading(input));
+                } else if (!input.skipField(tag)) {
+                    done = true;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("toEvent: Invalid readings", e.getMessage());
+            readings.clear();
+        }
+        return readings;
+    }
 
-        Event edgexEvent = null;
+    private static Event toEdgeXEvent(CodedInputStream input) {
+        Event edgexEvent = new Event("");
         try {
-            org.edgexfoundry.emf.protobufevent.EMFProtoEvent.Event eventObj = org.edgexfoundry.emf.protobufevent.EMFProtoEvent.Event
-                    .parseFrom(event);
-            edgexEvent = eventObj.getEdgeXEventObject();
+            readEvent(input, edgexEvent, true);
         } catch (Exception e) {
             logger.error("toEvent: Invalid byte array", e.getMessage());
+            return null;
         }
         return edgexEvent;
     }
+
+    // Field numbers and wire types are as per Event.proto. Readings are
+    // skipped if readReadings is false.
+    private static void readEvent(CodedInputStream input, Event event, boolean readReadings)
+            throws IOException {
+        List<Reading> readings = new ArrayList<Reading>();
+        int fields = 0;
+        boolean done = false;
+        while (!done) {
+            int tag = input.readTag();
+            switch (tag) {
+            case 0:
+                done = true;
+                break;
+            case 10:
+                event.setId(input.readString());
+                fields |= 0x01;
+                break;
+            case 16:
+                event.setCreated(input.readInt64());
+                fields |= 0x02;
+                break;
+            case 24:
+                event.setModified(input.readInt64());
+                fields |= 0x04;
+                break;
+            case 32:
+                event.setOrigin(input.readInt64());
+                fields |= 0x08;
+                break;
+            case 40:
+                event.setPushed(input.readInt64());
+                fields |= 0x10;
+                break;
+            case 50:
+                event.setDevice(input.readString());
+                fields |= 0x20;
+                break;
+            case 58:
+                if (readReadings) {
+                    readings.add(readNestedReading(input));
+                } else {
+                    input.skipField(tag);
+                }
+                break;
+            default:
+                if (!input.skipField(tag)) {
+                    done = true;
+                }
+                break;
+            }
+        }
+        // All the fields of Event are required
+        if (fields != 0x3F) {
+            throw new InvalidProtocolBufferException("Event is missing required fields");
+        }
+        if (readReadings) {
+            event.setReadings(readings);
+        }
+    }
+
+    private static Reading readNestedReading(CodedInputStream input) throws IOException {
+        int limit = input.pushLimit(input.readRawVarint32());
+        Reading reading = readReading(input);
+        input.checkLastTagWas(0);
+        input.popLimit(limit);
+        return reading;
+    }
+
+    private static Reading readReading(CodedInputStream input) throws IOException {
+        Reading reading = new Reading();
+        int fields = 0;
+        boolean done = false;
+        while (!done) {
+            int tag = input.readTag();
+            switch (tag) {
+            case 0:
+                done = true;
+                break;
+            case 10:
+                reading.setId(input.readString());
+                fields |= 0x01;
+                break;
+            case 16:
+                reading.setCreated(input.readInt64());
+                fields |= 0x02;
+                break;
+            case 24:
+                reading.setModified(input.readInt64());
+                fields |= 0x04;
+                break;
+            case 32:
+                reading.setOrigin(input.readInt64());
+                fields |= 0x08;
+                break;
+            case 40:
+                reading.setPushed(input.readInt64());
+                fields |= 0x10;
+                break;
+            case 50:
+                reading.setName(input.readString());
+                fields |= 0x20;
+                break;
+            case 58:
+                reading.setValue(input.readString());
+                fields |= 0x40;
+                break;
+            case 66:
+                reading.setDevice(input.readString());
+                fields |= 0x80;
+                break;
+            default:
+                if (!input.skipField(tag)) {
+                    done = true;
+                }
+                break;
+            }
+        }
+        // All the fields of Reading are required
+        if (fields != 0xFF) {
+            throw new InvalidProtocolBufferException("Reading is missing required fields");
+        }
+        return reading;
+    }
 }
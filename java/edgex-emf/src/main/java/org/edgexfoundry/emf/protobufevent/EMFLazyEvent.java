@@ -0,0 +1,68 @@
+package org.edgexfoundry.emf.protobufevent;
+
+import java.util.List;
+
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.domain.core.Reading;
+
+/**
+ * EdgeX event whose readings are decoded from the protocol buffer event on
+ * the first call to {@link EMFLazyEvent#getReadings}. Event fields are
+ * decoded by {@link EMFEventConverter} when the event is created.
+ */
+final class EMFLazyEvent extends Event {
+
+    // Encoded event, released once readings are decoded
+    private byte[] mData;
+    private int mOffset;
+    private int mLength;
+    private volatile boolean mDecoded;
+
+    EMFLazyEvent(byte[] data, int offset, int length) {
+        super("");
+        mData = data;
+        mOffset = offset;
+        mLength = length;
+    }
+
+    @Override
+    public List<Reading> getReadings() {
+        if (false == mDecoded) {
+            synchronized (this) {
+                if (false == mDecoded) {
+                    super.setReadings(EMFEventConverter.readReadings(mData, mOffset, mLength));
+                    release();
+                }
+            }
+        }
+        return super.getReadings();
+    }
+
+    @Override
+    public void setReadings(List<Reading> readings) {
+        synchronized (this) {
+            super.setReadings(readings);
+            release();
+        }
+    }
+
+    /**
+     * Check whether readings are decoded.
+     *
+     * @return true if readings are decoded or set.
+     */
+    boolean isDecoded() {
+        return mDecoded;
+    }
+
+    @Override
+    public String toString() {
+        getReadings();
+        return super.toString();
+    }
+
+    private void release() {
+        mData = null;
+        mDecoded = true;
+    }
+}
@@ -0,0 +1,29 @@
+package org.edgexfoundry.emf;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates executors running every task on a new virtual thread.
+ *
+ * This is the Java 21 version of the class, packaged under
+ * META-INF/versions/21 of the multi-release jar.
+ */
+final class EMFVirtualThreads {
+
+    private EMFVirtualThreads() {
+    }
+
+    static boolean isSupported() {
+        return true;
+    }
+
+    /**
+     * Create virtual thread per task executor.
+     *
+     * @return Executor or null if virtual threads are not supported.
+     */
+    static ExecutorService newExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
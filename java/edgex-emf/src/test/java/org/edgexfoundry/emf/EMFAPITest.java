@@ -32,4 +32,29 @@ public class EMFAPITest {
         assertEquals(EMFErrorCode.EMF_OK, instance.initialize());
         assertNotNull(instance.getContext());
     }
+
+    @Test
+    public void initializeConfigTest() {
+        EMFAPI instance = EMFAPI.getInstance();
+        EMFConfig config = new EMFConfig();
+        assertEquals(1, config.getIOThreads());
+        assertEquals(-1, config.getMaxSockets());
+        assertEquals(EMFErrorCode.EMF_OK, config.setIOThreads(4));
+        assertEquals(EMFErrorCode.EMF_OK, config.setMaxSockets(2048));
+        assertEquals(EMFErrorCode.EMF_OK, instance.initialize(config));
+        assertEquals(4, instance.getContext().getIOThreads());
+        assertEquals(2048, instance.getContext().getMaxSockets());
+        assertEquals(EMFErrorCode.EMF_OK, instance.terminate());
+    }
+
+    @Test
+    public void initializeConfigNegativeTest() {
+        EMFAPI instance = EMFAPI.getInstance();
+        assertEquals(EMFErrorCode.EMF_ERROR, instance.initialize(null));
+        EMFConfig config = new EMFConfig();
+        assertEquals(EMFErrorCode.EMF_ERROR, config.setIOThreads(0));
+        assertEquals(EMFErrorCode.EMF_ERROR, config.setMaxSockets(0));
+        assertEquals(1, config.getIOThreads());
+        assertEquals(-1, config.getMaxSockets());
+    }
 }
@@ -0,0 +1,114 @@
+package org.edgexfoundry.emf;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class EMFConflationQueueTest {
+
+    private static byte[][] topics(String... names) {
+        byte[][] frames = new byte[names.length][];
+        for (int i = 0; i < names.length; i++) {
+            frames[i] = names[i].getBytes();
+        }
+        return frames;
+    }
+
+    @Test
+    public void conflateTopicTest() {
+        EMFConflationQueue queue = new EMFConflationQueue(16);
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+
+        byte[] first = { 1 };
+        byte[] second = { 2 };
+        byte[] other = { 3 };
+        assertTrue(queue.offer(new EMFFrame(topics("a/"), first)));
+        assertTrue(queue.offer(new EMFFrame(topics("b/"), other)));
+        assertTrue(queue.offer(new EMFFrame(topics("a/"), second)));
+        assertEquals(1, queue.getConflatedCount());
+
+        // Key keeps its position, frame is the latest one
+        EMFFrame frame = queue.poll();
+        assertArrayEquals("a/".getBytes(), frame.topics[0]);
+        assertSame(second, frame.data);
+        assertSame(other, queue.poll().data);
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void conflateDeviceTest() {
+        EMFConflationQueue queue = new EMFConflationQueue(16);
+        byte[] latest = { 2 };
+        assertTrue(queue.offer(new EMFFrame(null, new byte[] { 1 }, "device")));
+        assertTrue(queue.offer(new EMFFrame(null, latest, "device")));
+
+        // Frames without topic and device are never replaced
+        assertTrue(queue.offer(new EMFFrame(null, new byte[] { 3 })));
+        assertTrue(queue.offer(new EMFFrame(null, new byte[] { 4 })));
+
+        assertSame(latest, queue.poll().data);
+        assertEquals(3, queue.poll().data[0]);
+        assertEquals(4, queue.poll().data[0]);
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void splitTopicsTest() {
+        EMFConflationQueue queue = new EMFConflationQueue(16);
+        EMFFrame head = new EMFFrame(topics("a/", "b/"), new byte[] { 1 });
+        head.next = new EMFFrame(topics("a/"), new byte[] { 2 });
+        assertTrue(queue.offer(head));
+
+        EMFFrame frame = queue.poll();
+        assertEquals(1, frame.topics.length);
+        assertArrayEquals("a/".getBytes(), frame.topics[0]);
+        assertEquals(2, frame.data[0]);
+        assertNull(frame.next);
+        assertEquals(1, queue.poll().data[0]);
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void capacityTest() {
+        EMFConflationQueue queue = new EMFConflationQueue(2);
+        assertTrue(queue.offer(new EMFFrame(topics("a/"), new byte[] { 1 })));
+        assertTrue(queue.offer(new EMFFrame(topics("b/"), new byte[] { 1 })));
+        assertFalse(queue.offer(new EMFFrame(topics("c/"), new byte[] { 1 })));
+
+        // Pending key is replaced even if queue is full
+        assertTrue(queue.offer(new EMFFrame(topics("a/"), new byte[] { 2 })));
+    }
+
+    @Test
+    public void capacityChainTest() {
+        EMFConflationQueue queue = new EMFConflationQueue(2);
+        assertTrue(queue.offer(new EMFFrame(topics("a/"), new byte[] { 1 })));
+
+        // None of the frames is added if the new keys do not fit
+        EMFFrame head = new EMFFrame(topics("a/"), new byte[] { 2 });
+        head.next = new EMFFrame(topics("b/", "c/"), new byte[] { 2 });
+        assertFalse(queue.offer(head));
+        assertEquals(0, queue.getConflatedCount());
+
+        // Same key twice takes one place
+        head = new EMFFrame(topics("a/", "b/"), new byte[] { 3 });
+        head.next = new EMFFrame(topics("b/"), new byte[] { 4 });
+        assertTrue(queue.offer(head));
+        assertEquals(2, queue.getConflatedCount());
+        assertEquals(3, queue.poll().data[0]);
+        assertEquals(4, queue.poll().data[0]);
+        assertNull(queue.poll());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacityNegativeTest() {
+        new EMFConflationQueue(0);
+    }
+}
@@ -0,0 +1,106 @@
+package org.edgexfoundry.emf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.emf.EMFSubscriber.EMFSubCallback;
+import org.junit.Test;
+
+public class EMFContextTest {
+
+    private static final String mTopic = "topic";
+    private static final int mPort = 5563;
+
+    @Test
+    public void initializeTest() {
+        EMFContext context = new EMFContext();
+        assertEquals(EMFStatusCode.EMF_Constructed, context.getStatus());
+        assertNull(context.getContext());
+        assertEquals(EMFErrorCode.EMF_OK, context.initialize());
+        assertEquals(EMFStatusCode.EMF_Initialized, context.getStatus());
+        assertNotNull(context.getContext());
+        assertEquals(EMFErrorCode.EMF_OK, context.terminate());
+        assertEquals(EMFStatusCode.EMF_Terminated, context.getStatus());
+        assertNull(context.getContext());
+    }
+
+    @Test
+    public void initializeNegativeTest() {
+        EMFContext context = new EMFContext();
+        assertEquals(EMFErrorCode.EMF_ERROR, context.initialize(null));
+        assertEquals(EMFStatusCode.EMF_Constructed, context.getStatus());
+        assertEquals(EMFErrorCode.EMF_OK, context.terminate());
+    }
+
+    @Test
+    public void defaultContextTest() {
+        EMFAPI apiInstance = EMFAPI.getInstance();
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.initialize());
+        assertNotNull(apiInstance.getDefaultContext());
+        assertEquals(apiInstance.getContext(), apiInstance.getDefaultContext().getContext());
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.terminate());
+        assertEquals(EMFStatusCode.EMF_Terminated, apiInstance.getStatus());
+    }
+
+    @Test
+    public void separateContextTest() throws InterruptedException {
+        EMFConfig config = new EMFConfig();
+        config.setIOThreads(2);
+        EMFContext context = new EMFContext();
+        assertEquals(EMFErrorCode.EMF_OK, context.initialize(config));
+        EMFContext other = new EMFContext();
+        assertEquals(EMFErrorCode.EMF_OK, other.initialize());
+        assertNotSame(context.getContext(), other.getContext());
+
+        EMFSocketConfig pubConfig = new EMFSocketConfig();
+        pubConfig.setEndpoint(EMFEndpoint.tcp(mPort));
+        pubConfig.setContext(context);
+        EMFPublisher pubInstance = new EMFPublisher(pubConfig, null, EMFPublishMode.EMF_SYNC, 1);
+        EMFSocketConfig subConfig = new EMFSocketConfig();
+        subConfig.setEndpoint(EMFEndpoint.tcp("localhost", mPort));
+        subConfig.setContext(other);
+        final CountDownLatch received = new CountDownLatch(1);
+        final AtomicReference<String> receivedTopic = new AtomicReference<String>();
+        final AtomicReference<Event> receivedEvent = new AtomicReference<Event>();
+        EMFSubscriber subInstance = new EMFSubscriber(subConfig, new EMFSubCallback() {
+            public void onMessageCB(Event event) {
+            }
+
+            public void onMessageCB(String topic, Event event) {
+                receivedTopic.compareAndSet(null, topic);
+                receivedEvent.compareAndSet(null, event);
+                received.countDown();
+            }
+        }, null);
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.start());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.start());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.subscribe(mTopic));
+
+        // Subscription reaches the publisher asynchronously
+        Event event = TestUtils.getEdgeXEvent();
+        for (int i = 0; i < 100 && 0 != received.getCount(); i++) {
+            assertEquals(EMFErrorCode.EMF_OK, pubInstance.publish(mTopic, event));
+            received.await(50, TimeUnit.MILLISECONDS);
+        }
+        assertTrue(received.await(1, TimeUnit.SECONDS));
+        assertEquals(mTopic + "/", receivedTopic.get());
+        assertEquals(event.getDevice(), receivedEvent.get().getDevice());
+        assertEquals(event.getOrigin(), receivedEvent.get().getOrigin());
+        assertEquals(event.getReadings().size(), receivedEvent.get().getReadings().size());
+        assertEquals(event.getReadings().get(0).getValue(),
+                receivedEvent.get().getReadings().get(0).getValue());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.stop());
+
+        assertEquals(EMFErrorCode.EMF_OK, other.terminate());
+        assertEquals(EMFErrorCode.EMF_OK, context.terminate());
+    }
+}
@@ -0,0 +1,264 @@
+package org.edgexfoundry.emf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class EMFDispatcherTest {
+
+    @Test
+    public void orderedDispatchTest() throws InterruptedException {
+        final int topics = 8;
+        final int count = 1000;
+        EMFDispatcher dispatcher = new EMFDispatcher(4);
+        final List<List<Integer>> received = new ArrayList<List<Integer>>();
+        for (int t = 0; t < topics; t++) {
+            received.add(Collections.synchronizedList(new ArrayList<Integer>()));
+        }
+        final CountDownLatch done = new CountDownLatch(topics * count);
+
+        for (int i = 0; i < count; i++) {
+            for (int t = 0; t < topics; t++) {
+                final int topic = t;
+                final int value = i;
+                dispatcher.dispatch("topic" + t + "/", new Runnable() {
+                    public void run() {
+                        received.get(topic).add(value);
+                        done.countDown();
+                    }
+                });
+            }
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+
+        // Events of every topic arrive in order
+        for (int t = 0; t < topics; t++) {
+            List<Integer> values = received.get(t);
+            assertEquals(count, values.size());
+            for (int i = 0; i < count; i++) {
+                assertEquals(Integer.valueOf(i), values.get(i));
+            }
+        }
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void slowTopicTest() throws InterruptedException {
+        EMFDispatcher dispatcher = new EMFDispatcher(2);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch fastDone = new CountDownLatch(1);
+
+        // Blocked callback of one topic must not stop other topics
+        dispatcher.dispatch("slow/", new Runnable() {
+            public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        dispatcher.dispatch(null, new Runnable() {
+            public void run() {
+                fastDone.countDown();
+            }
+        });
+        assertTrue(fastDone.await(5, TimeUnit.SECONDS));
+        release.countDown();
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void unorderedDispatchTest() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        EMFDispatcher dispatcher = new EMFDispatcher(executor, false);
+        assertFalse(dispatcher.isOrdered());
+
+        final int count = 100;
+        final CountDownLatch done = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            dispatcher.dispatch("topic/", new Runnable() {
+                public void run() {
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        // Executor is not owned by the dispatcher
+        dispatcher.shutdown();
+        assertFalse(executor.isShutdown());
+        executor.shutdown();
+    }
+
+    @Test
+    public void virtualThreadDispatchTest() throws InterruptedException {
+        EMFDispatcher dispatcher = EMFDispatcher.newVirtualThreadDispatcher(true);
+        if (false == EMFDispatcher.isVirtualThreadSupported()) {
+            assertNull(dispatcher);
+            return;
+        }
+        assertNotNull(dispatcher);
+        assertTrue(dispatcher.isOrdered());
+
+        final CountDownLatch done = new CountDownLatch(1);
+        dispatcher.dispatch("topic/", new Runnable() {
+            public void run() {
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void dropWhenFullTest() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        EMFDispatcher dispatcher = new EMFDispatcher(executor, true, 4, false);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        dispatcher.dispatch("topic/", newBlockingTask(started, release));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Running callback does not take a place in the queue
+        final CountDownLatch done = new CountDownLatch(4);
+        for (int i = 0; i < 6; i++) {
+            dispatcher.dispatch("topic/", newCountingTask(done));
+        }
+        assertEquals(2, dispatcher.getDroppedCount());
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(2, dispatcher.getDroppedCount());
+        executor.shutdown();
+    }
+
+    @Test
+    public void blockWhenFullTest() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        final EMFDispatcher dispatcher = new EMFDispatcher(executor, true, 1, true);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        dispatcher.dispatch("topic/", newBlockingTask(started, release));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        final CountDownLatch done = new CountDownLatch(2);
+        final CountDownLatch dispatched = new CountDownLatch(1);
+        dispatcher.dispatch("topic/", newCountingTask(done));
+        Thread thread = new Thread(new Runnable() {
+            public void run() {
+                dispatcher.dispatch("topic/", newCountingTask(done));
+                dispatched.countDown();
+            }
+        });
+        thread.start();
+
+        // Dispatch waits until the queue has room
+        assertFalse(dispatched.await(200, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue(dispatched.await(5, TimeUnit.SECONDS));
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(0, dispatcher.getDroppedCount());
+        executor.shutdown();
+    }
+
+    @Test
+    public void unorderedDropWhenFullTest() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        EMFDispatcher dispatcher = new EMFDispatcher(executor, false, 2, false);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        dispatcher.dispatch("topic1/", newBlockingTask(started, release));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Capacity is shared by all topics
+        final CountDownLatch done = new CountDownLatch(1);
+        dispatcher.dispatch("topic2/", newCountingTask(done));
+        dispatcher.dispatch("topic3/", newCountingTask(done));
+        assertEquals(1, dispatcher.getDroppedCount());
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test
+    public void idleQueueRemovedTest() throws InterruptedException {
+        EMFDispatcher dispatcher = new EMFDispatcher(2);
+        int count = 100;
+        final CountDownLatch done = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            dispatcher.dispatch("topic" + i + "/", newCountingTask(done));
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        // Queue is removed after its last task returns
+        long deadline = System.currentTimeMillis() + 5000;
+        while (dispatcher.getQueueCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, dispatcher.getQueueCount());
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void errorInCallbackTest() throws InterruptedException {
+        EMFDispatcher dispatcher = new EMFDispatcher(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        dispatcher.dispatch("topic/", new Runnable() {
+            public void run() {
+                throw new AssertionError("callback error");
+            }
+        });
+        // Topic is not stalled by the error
+        dispatcher.dispatch("topic/", newCountingTask(done));
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        dispatcher.shutdown();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void queueCapacityNegativeTest() {
+        new EMFDispatcher(new Executor() {
+            public void execute(Runnable task) {
+                task.run();
+            }
+        }, true, 0, false);
+    }
+
+    private Runnable newBlockingTask(final CountDownLatch started, final CountDownLatch release) {
+        return new Runnable() {
+            public void run() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+    }
+
+    private Runnable newCountingTask(final CountDownLatch done) {
+        return new Runnable() {
+            public void run() {
+                done.countDown();
+            }
+        };
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void constructorNegativeTest() {
+        new EMFDispatcher(null);
+    }
+}
@@ -0,0 +1,129 @@
+package org.edgexfoundry.emf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.emf.EMFSubscriber.EMFSubCallback;
+import org.junit.Test;
+
+public class EMFEndpointTest {
+
+    private static final String mTopic = "topic";
+
+    @Test
+    public void tcpTest() {
+        EMFEndpoint endpoint = EMFEndpoint.tcp(5562);
+        assertEquals(EMFEndpoint.Transport.TCP, endpoint.getTransport());
+        assertNull(endpoint.getHost());
+        assertEquals(5562, endpoint.getPort());
+        assertEquals("tcp://*:5562", endpoint.getBindAddress());
+        assertEquals("tcp://localhost:5562", endpoint.getConnectAddress());
+
+        endpoint = EMFEndpoint.tcp("192.168.0.2", 5562);
+        assertEquals("192.168.0.2", endpoint.getHost());
+        assertEquals("tcp://192.168.0.2:5562", endpoint.getBindAddress());
+        assertEquals("tcp://192.168.0.2:5562", endpoint.getConnectAddress());
+        assertEquals(EMFEndpoint.tcp(5562), EMFEndpoint.tcp("*", 5562));
+    }
+
+    @Test
+    public void inprocIpcTest() {
+        EMFEndpoint endpoint = EMFEndpoint.inproc("events");
+        assertEquals(EMFEndpoint.Transport.INPROC, endpoint.getTransport());
+        assertEquals("events", endpoint.getName());
+        assertEquals(-1, endpoint.getPort());
+        assertEquals("inproc://events", endpoint.getBindAddress());
+        assertEquals("inproc://events", endpoint.getConnectAddress());
+
+        endpoint = EMFEndpoint.ipc("/tmp/events");
+        assertEquals(EMFEndpoint.Transport.IPC, endpoint.getTransport());
+        assertEquals("ipc:///tmp/events", endpoint.getBindAddress());
+        assertEquals("ipc:///tmp/events", endpoint.getConnectAddress());
+    }
+
+    @Test
+    public void parseTest() {
+        assertEquals(EMFEndpoint.tcp(5562), EMFEndpoint.parse("tcp://*:5562"));
+        assertEquals(EMFEndpoint.tcp("localhost", 5562), EMFEndpoint.parse("tcp://localhost:5562"));
+        assertEquals(EMFEndpoint.inproc("events"), EMFEndpoint.parse("inproc://events"));
+        assertEquals(EMFEndpoint.ipc("/tmp/events"), EMFEndpoint.parse("ipc:///tmp/events"));
+    }
+
+    @Test
+    public void negativeTest() {
+        assertNull(EMFEndpoint.tcp(-1));
+        assertNull(EMFEndpoint.tcp(65536));
+        assertNull(EMFEndpoint.tcp("", 5562));
+        assertNull(EMFEndpoint.inproc(null));
+        assertNull(EMFEndpoint.inproc(""));
+        assertNull(EMFEndpoint.ipc(null));
+        assertNull(EMFEndpoint.parse(null));
+        assertNull(EMFEndpoint.parse("udp://localhost:5562"));
+        assertNull(EMFEndpoint.parse("tcp://localhost"));
+        assertNull(EMFEndpoint.parse("tcp://localhost:port"));
+        assertNull(EMFEndpoint.parse("tcp://:5562"));
+        assertNull(EMFEndpoint.parse("inproc://"));
+    }
+
+    @Test
+    public void startNegativeTest() {
+        EMFAPI apiInstance = EMFAPI.getInstance();
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.initialize());
+        EMFSocketConfig config = new EMFSocketConfig();
+        EMFPublisher pubInstance = new EMFPublisher(config, null, EMFPublishMode.EMF_SYNC, 1);
+        assertEquals(EMFErrorCode.EMF_ERROR, pubInstance.start());
+        EMFSubscriber subInstance = new EMFSubscriber(config, null, null);
+        assertEquals(EMFErrorCode.EMF_ERROR, subInstance.start());
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.terminate());
+    }
+
+    @Test
+    public void inprocPublishTest() throws InterruptedException {
+        publish(EMFEndpoint.inproc("emf-endpoint-test"));
+    }
+
+    @Test
+    public void ipcPublishTest() throws InterruptedException {
+        publish(EMFEndpoint.ipc("emf-endpoint-test"));
+    }
+
+    private void publish(EMFEndpoint endpoint) throws InterruptedException {
+        EMFContext context = new EMFContext();
+        assertEquals(EMFErrorCode.EMF_OK, context.initialize());
+        final CountDownLatch received = new CountDownLatch(1);
+        EMFSocketConfig config = new EMFSocketConfig();
+        config.setEndpoint(endpoint);
+        config.setContext(context);
+        EMFPublisher pubInstance = new EMFPublisher(config, null, EMFPublishMode.EMF_SYNC, 1);
+        EMFSubscriber subInstance = new EMFSubscriber(config, new EMFSubCallback() {
+            public void onMessageCB(Event event) {
+            }
+
+            public void onMessageCB(String topic, Event event) {
+                received.countDown();
+            }
+        }, null);
+        assertNotNull(pubInstance.getEndpoint());
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.start());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.start());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.subscribe(mTopic));
+
+        // Subscription reaches the publisher asynchronously
+        long deadline = System.currentTimeMillis() + 5000;
+        while (received.getCount() > 0 && System.currentTimeMillis() < deadline) {
+            assertEquals(EMFErrorCode.EMF_OK, pubInstance.publish(mTopic, TestUtils.getEdgeXEvent()));
+            received.await(50, TimeUnit.MILLISECONDS);
+        }
+        assertTrue(received.getCount() == 0);
+
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, context.terminate());
+    }
+}
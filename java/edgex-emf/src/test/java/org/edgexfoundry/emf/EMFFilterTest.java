@@ -0,0 +1,152 @@
+package org.edgexfoundry.emf;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.edgexfoundry.domain.core.Event;
+import org.junit.Test;
+
+public class EMFFilterTest {
+
+    @Test
+    public void emptyFilterTest() {
+        EMFFilterEvaluator evaluator = new EMFFilter().compile();
+        assertFalse(evaluator.needsReadings());
+        assertTrue(evaluator.accept(TestUtils.getEdgeXEvent()));
+    }
+
+    @Test
+    public void deviceTest() {
+        EMFFilter filter = new EMFFilter();
+        assertEquals(EMFErrorCode.EMF_OK, filter.addDevice("Test"));
+        assertEquals(EMFErrorCode.EMF_OK, filter.addDevice("Other"));
+        EMFFilterEvaluator evaluator = filter.compile();
+        assertFalse(evaluator.needsReadings());
+
+        Event event = TestUtils.getEdgeXEvent();
+        assertTrue(evaluator.acceptHeader(event));
+        event.setDevice("Unknown");
+        assertFalse(evaluator.acceptHeader(event));
+        assertFalse(evaluator.accept(event));
+    }
+
+    @Test
+    public void originRangeTest() {
+        Event event = TestUtils.getEdgeXEvent();
+        EMFFilter filter = new EMFFilter();
+        assertEquals(EMFErrorCode.EMF_OK, filter.setOriginRange(event.getOrigin(), event.getOrigin() + 10));
+        assertTrue(filter.compile().accept(event));
+
+        assertEquals(EMFErrorCode.EMF_OK, filter.setOriginRange(event.getOrigin() + 1, event.getOrigin() + 10));
+        assertFalse(filter.compile().accept(event));
+    }
+
+    @Test
+    public void readingNameTest() {
+        EMFFilter filter = new EMFFilter();
+        assertEquals(EMFErrorCode.EMF_OK, filter.addReadingName("TestReading2"));
+        EMFFilterEvaluator evaluator = filter.compile();
+        assertTrue(evaluator.needsReadings());
+        assertTrue(evaluator.accept(TestUtils.getEdgeXEvent()));
+
+        filter.addReadingName("TestReading3");
+        assertTrue(filter.compile().accept(TestUtils.getEdgeXEvent()));
+
+        EMFFilter otherFilter = new EMFFilter();
+        otherFilter.addReadingName("TestReading3");
+        assertFalse(otherFilter.compile().accept(TestUtils.getEdgeXEvent()));
+    }
+
+    @Test
+    public void valueThresholdTest() {
+        Event event = TestUtils.getEdgeXEvent();
+        event.getReadings().get(0).setValue("25.5");
+        event.getReadings().get(1).setValue("not a number");
+
+        EMFFilter filter = new EMFFilter();
+        assertEquals(EMFErrorCode.EMF_OK, filter.addValueThreshold("TestReading1", 20, 30));
+        assertTrue(filter.compile().accept(event));
+
+        filter.addValueThreshold("TestReading1", 25.5, 25.5);
+        assertTrue(filter.compile().accept(event));
+
+        filter.addValueThreshold("TestReading2", Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+        assertFalse(filter.compile().accept(event));
+
+        EMFFilter highFilter = new EMFFilter();
+        highFilter.addValueThreshold("TestReading1", 30, 40);
+        assertFalse(highFilter.compile().accept(event));
+    }
+
+    @Test
+    public void compileSnapshotTest() {
+        EMFFilter filter = new EMFFilter();
+        EMFFilterEvaluator evaluator = filter.compile();
+        filter.addDevice("Other");
+        assertTrue(evaluator.accept(TestUtils.getEdgeXEvent()));
+        assertFalse(filter.compile().accept(TestUtils.getEdgeXEvent()));
+    }
+
+    @Test
+    public void filterNegativeTest() {
+        EMFFilter filter = new EMFFilter();
+        assertEquals(EMFErrorCode.EMF_ERROR, filter.addDevice(null));
+        assertEquals(EMFErrorCode.EMF_ERROR, filter.addReadingName(null));
+        assertEquals(EMFErrorCode.EMF_ERROR, filter.setOriginRange(10, 5));
+        assertEquals(EMFErrorCode.EMF_ERROR, filter.addValueThreshold(null, 0, 1));
+        assertEquals(EMFErrorCode.EMF_ERROR, filter.addValueThreshold("name", 1, 0));
+        assertEquals(EMFErrorCode.EMF_ERROR, filter.addValueThreshold("name", Double.NaN, 1));
+        assertTrue(filter.getDevices().isEmpty());
+        assertTrue(filter.getReadingNames().isEmpty());
+        assertEquals(Long.MIN_VALUE, filter.getOriginFrom());
+        assertEquals(Long.MAX_VALUE, filter.getOriginTo());
+    }
+
+    @Test
+    public void subscriptionTest() {
+        EMFFilter filter = new EMFFilter();
+        filter.addDevice("Test");
+        filter.addReadingName("TestReading1");
+        filter.setOriginRange(10, 20);
+        filter.addValueThreshold("TestReading1", 0, 40);
+        byte[] subscription = filter.toSubscription(-2L, 3);
+        assertTrue(EMFFilter.isFilterSubscription(subscription, 0));
+        assertEquals(0, subscription[0]);
+        assertEquals(-2L, EMFFilter.getSubscriptionOwner(subscription, 0));
+        assertEquals(3, EMFFilter.getSubscriptionGeneration(subscription, 0));
+
+        EMFFilter decoded = EMFFilter.fromSubscription(subscription, 0);
+        assertNotNull(decoded);
+        assertEquals(filter.getDevices(), decoded.getDevices());
+        assertEquals(filter.getReadingNames(), decoded.getReadingNames());
+        assertEquals(10, decoded.getOriginFrom());
+        assertEquals(20, decoded.getOriginTo());
+        assertEquals(1, decoded.getValueThresholds().size());
+        assertArrayEquals(subscription, decoded.toSubscription(-2L, 3));
+
+        // Subscription preceded by XPUB subscribe byte
+        byte[] message = new byte[subscription.length + 1];
+        message[0] = 1;
+        System.arraycopy(subscription, 0, message, 1, subscription.length);
+        assertArrayEquals(subscription, EMFFilter.fromSubscription(message, 1).toSubscription(-2L, 3));
+        assertEquals(3, EMFFilter.getSubscriptionGeneration(message, 1));
+    }
+
+    @Test
+    public void subscriptionNegativeTest() {
+        assertFalse(EMFFilter.isFilterSubscription("topic/".getBytes(), 0));
+        assertNull(EMFFilter.fromSubscription("topic/".getBytes(), 0));
+
+        byte[] subscription = new EMFFilter().toSubscription(1L, 1);
+        assertNull(EMFFilter.fromSubscription(
+                Arrays.copyOf(subscription, subscription.length - 1), 0));
+        assertNull(EMFFilter.fromSubscription(
+                Arrays.copyOf(subscription, subscription.length + 1), 0));
+    }
+}
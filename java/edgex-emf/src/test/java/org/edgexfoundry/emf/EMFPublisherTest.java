@@ -1,12 +1,17 @@
 package org.edgexfoundry.emf;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.emf.EMFSubscriber.EMFSubCallback;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -122,6 +127,433 @@ public class EMFPublisherTest {
         assertEquals(EMFErrorCode.EMF_OK, apiInstance.terminate());
     }
 
+    @Test
+    public void publishBatchTest() {
+        EMFAPI apiInstance = EMFAPI.getInstance();
+        assertNotNull(apiInstance);
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.initialize());
+        EMFPublisher pubInstance = new EMFPublisher(mPort, mCallback);
+        assertNotNull(pubInstance);
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.start());
+
+        Event event = TestUtils.getEdgeXEvent();
+
+        List<EMFTopicEvent> events = new ArrayList<EMFTopicEvent>();
+        events.add(new EMFTopicEvent("topic1", event));
+        events.add(new EMFTopicEvent("topic2", event));
+        events.add(new EMFTopicEvent(TestUtils.getEdgeXEvent()));
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.publishBatch(events));
+
+        // Empty batch
+        assertEquals(EMFErrorCode.EMF_OK,
+                pubInstance.publishBatch(new ArrayList<EMFTopicEvent>()));
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.terminate());
+    }
+
+    @Test
+    public void publishBatchNegativeTest() {
+        EMFAPI apiInstance = EMFAPI.getInstance();
+        assertNotNull(apiInstance);
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.initialize());
+        EMFPublisher pubInstance = new EMFPublisher(mPort, mCallback);
+        assertNotNull(pubInstance);
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.start());
+
+        Event event = TestUtils.getEdgeXEvent();
+        assertEquals(EMFErrorCode.EMF_ERROR, pubInstance.publishBatch(null));
+
+        List<EMFTopicEvent> events = new ArrayList<EMFTopicEvent>();
+        events.add(new EMFTopicEvent("topic1", event));
+        events.add(new EMFTopicEvent("*topic", event));
+        assertEquals(EMFErrorCode.EMF_INVALID_TOPIC, pubInstance.publishBatch(events));
+
+        events.clear();
+        events.add(new EMFTopicEvent("topic1", TestUtils.getWrongEvent()));
+        assertEquals(EMFErrorCode.EMF_ERROR, pubInstance.publishBatch(events));
+
+        events.clear();
+        events.add(null);
+        assertEquals(EMFErrorCode.EMF_ERROR, pubInstance.publishBatch(events));
+
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.terminate());
+    }
+
+    @Test
+    public void publishEncodedTest() {
+        EMFAPI apiInstance = EMFAPI.getInstance();
+        assertNotNull(apiInstance);
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.initialize());
+        EMFPublisher pubInstance = new EMFPublisher(mPort, mCallback);
+        assertNotNull(pubInstance);
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.start());
+
+        EMFEncodedEvent event = EMFEncodedEvent.encode(TestUtils.getEdgeXEvent());
+        assertNotNull(event);
+        assertEquals(null, EMFEncodedEvent.encode(TestUtils.getWrongEvent()));
+
+        List<String> topics = new ArrayList<String>();
+        topics.add("topic1");
+        topics.add("topic2");
+
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.publish(event));
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.publish(mTopic, event));
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.publish(topics, event));
+
+        // Negative cases
+        EMFEncodedEvent nullEvent = null;
+        String nullTopic = null;
+        assertEquals(EMFErrorCode.EMF_ERROR, pubInstance.publish(nullEvent));
+        assertEquals(EMFErrorCode.EMF_INVALID_TOPIC, pubInstance.publish(nullTopic, event));
+        topics.add("*topic");
+        assertEquals(EMFErrorCode.EMF_INVALID_TOPIC, pubInstance.publish(topics, event));
+
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.terminate());
+    }
+
+    @Test
+    public void publishAsyncTest() {
+        EMFAPI apiInstance = EMFAPI.getInstance();
+        assertNotNull(apiInstance);
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.initialize());
+        EMFPublisher pubInstance = new EMFPublisher(mPort, mCallback,
+                EMFPublishMode.EMF_ASYNC);
+        assertNotNull(pubInstance);
+        assertEquals(EMFPublishMode.EMF_ASYNC, pubInstance.getPublishMode());
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.start());
+
+        Event event = TestUtils.getEdgeXEvent();
+
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.publish(event));
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.publish(mTopic, event));
+
+        List<String> topics = new ArrayList<String>();
+        topics.add("topic1");
+        topics.add("topic2");
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.publish(topics, event));
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.stop());
+
+        // Publish after stop
+        assertEquals(EMFErrorCode.EMF_ERROR, pubInstance.publish(event));
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.terminate());
+    }
+
+    @Test
+    public void publishAsyncStopTest() throws InterruptedException {
+        EMFContext context = new EMFContext();
+        assertEquals(EMFErrorCode.EMF_OK, context.initialize());
+        EMFSocketConfig config = new EMFSocketConfig();
+        config.setEndpoint(EMFEndpoint.inproc("emf-publisher-stop-test"));
+        config.setContext(context);
+        final EMFPublisher pubInstance = new EMFPublisher(config, mCallback,
+                EMFPublishMode.EMF_ASYNC, 4096);
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.start());
+        EMFSubscriber subInstance = new EMFSubscriber(config, null, null);
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.setPullMode(true));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.start());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.subscribe(mTopic));
+
+        // Subscription reaches the publisher asynchronously
+        final Event event = TestUtils.getEdgeXEvent();
+        EMFTopicEvent received = null;
+        for (int i = 0; i < 100 && null == received; i++) {
+            assertEquals(EMFErrorCode.EMF_OK, pubInstance.publish(mTopic, event));
+            received = subInstance.poll(50);
+        }
+        assertNotNull(received);
+        while (null != subInstance.poll(100)) {
+            // Drop the events published while connecting
+        }
+
+        // Every event accepted while stopping is written before stop returns
+        final AtomicInteger published = new AtomicInteger();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(new Runnable() {
+                public void run() {
+                    for (int i = 0; i < 200; i++) {
+                        if (EMFErrorCode.EMF_OK != pubInstance.publish(mTopic, event)) {
+                            break;
+                        }
+                        published.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        Thread.sleep(1);
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.stop());
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        int count = 0;
+        while (null != subInstance.poll(500)) {
+            count++;
+        }
+        assertEquals(published.get(), count);
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, context.terminate());
+    }
+
+    @Test
+    public void publishConflateTest() throws InterruptedException {
+        EMFAPI apiInstance = EMFAPI.getInstance();
+        assertNotNull(apiInstance);
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.initialize());
+        EMFSocketConfig config = new EMFSocketConfig();
+        config.setEndpoint(EMFEndpoint.inproc("emf-publisher-conflate-test"));
+        EMFPublisher pubInstance = new EMFPublisher(config, mCallback,
+                EMFPublishMode.EMF_CONFLATE, 4096);
+        assertNotNull(pubInstance);
+        assertEquals(EMFPublishMode.EMF_CONFLATE, pubInstance.getPublishMode());
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.start());
+        EMFSocketOptions options = new EMFSocketOptions();
+        assertEquals(EMFErrorCode.EMF_OK, options.setReceiveHighWaterMark(1));
+        config.setOptions(options);
+        EMFSubscriber subInstance = new EMFSubscriber(config, null, null);
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.setPullMode(true));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.start());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.subscribe(mTopic));
+
+        // Subscription reaches the publisher asynchronously
+        Event event = TestUtils.getEdgeXEvent();
+        EMFTopicEvent received = null;
+        for (int i = 0; i < 100 && null == received; i++) {
+            assertEquals(EMFErrorCode.EMF_OK, pubInstance.publish(mTopic, event));
+            received = subInstance.poll(50);
+        }
+        assertNotNull(received);
+        while (null != subInstance.poll(100)) {
+            // Drop the events published while connecting
+        }
+
+        // Subscriber does not receive, only a few events wait in the socket
+        for (int i = 0; i < 1000; i++) {
+            event.setOrigin(i);
+            assertEquals(EMFErrorCode.EMF_OK, pubInstance.publish(mTopic, event));
+        }
+        Thread.sleep(200);
+        int stale = 0;
+        while (null != subInstance.poll(100)) {
+            stale++;
+        }
+        assertTrue(stale <= 4);
+
+        // Next event is not queued behind stale events
+        event.setOrigin(1000);
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.publish(mTopic, event));
+        received = subInstance.poll(1000);
+        assertNotNull(received);
+        assertEquals(1000, received.getEvent().getOrigin());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.stop());
+
+        // Publish after stop
+        assertEquals(EMFErrorCode.EMF_ERROR, pubInstance.publish(event));
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.terminate());
+    }
+
+    @Test
+    public void socketOptionsTest() {
+        EMFAPI apiInstance = EMFAPI.getInstance();
+        assertNotNull(apiInstance);
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.initialize());
+        EMFSocketOptions options = new EMFSocketOptions();
+        options.setSendHighWaterMark(100000);
+        options.setLinger(0);
+        EMFSocketConfig config = new EMFSocketConfig();
+        config.setEndpoint(EMFEndpoint.tcp(mPort));
+        config.setOptions(options);
+        EMFPublisher pubInstance = new EMFPublisher(config, mCallback, EMFPublishMode.EMF_SYNC, 1);
+        assertNotNull(pubInstance);
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.start());
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.publish(mTopic, TestUtils.getEdgeXEvent()));
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.terminate());
+    }
+
+    @Test
+    public void publishEMFTopicTest() {
+        EMFAPI apiInstance = EMFAPI.getInstance();
+        assertNotNull(apiInstance);
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.initialize());
+        EMFPublisher pubInstance = new EMFPublisher(mPort, mCallback);
+        assertNotNull(pubInstance);
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.start());
+
+        Event event = TestUtils.getEdgeXEvent();
+        EMFTopic topic = EMFTopic.create(mTopic);
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.publish(topic, event));
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.publish(topic, EMFEncodedEvent.encode(event)));
+
+        EMFTopic nullTopic = null;
+        assertEquals(EMFErrorCode.EMF_INVALID_TOPIC, pubInstance.publish(nullTopic, event));
+        Event nullEvent = null;
+        assertEquals(EMFErrorCode.EMF_ERROR, pubInstance.publish(topic, nullEvent));
+        assertEquals(EMFErrorCode.EMF_ERROR, pubInstance.publish(topic, TestUtils.getWrongEvent()));
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.terminate());
+    }
+
+    @Test
+    public void subscriberFiltersTest() {
+        EMFAPI apiInstance = EMFAPI.getInstance();
+        assertNotNull(apiInstance);
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.initialize());
+        EMFPublisher pubInstance = new EMFPublisher(mPort, mCallback);
+        assertNotNull(pubInstance);
+        assertFalse(pubInstance.isSubscriberFilters());
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.setSubscriberFilters(true));
+        assertTrue(pubInstance.isSubscriberFilters());
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.start());
+        assertEquals(EMFErrorCode.EMF_ERROR, pubInstance.setSubscriberFilters(false));
+
+        Event event = TestUtils.getEdgeXEvent();
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.publish(event));
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.publish(mTopic, event));
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.terminate());
+    }
+
+    @Test
+    public void subscriberFiltersPublishTest() throws InterruptedException {
+        EMFAPI apiInstance = EMFAPI.getInstance();
+        assertNotNull(apiInstance);
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.initialize());
+        EMFPublisher pubInstance = new EMFPublisher(mPort, mCallback);
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.setSubscriberFilters(true));
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.start());
+        final List<String> devices = new CopyOnWriteArrayList<String>();
+        EMFSubscriber subInstance = new EMFSubscriber("localhost", mPort, new EMFSubCallback() {
+            public void onMessageCB(Event event) {
+            }
+
+            public void onMessageCB(String topic, Event event) {
+                devices.add(event.getDevice());
+            }
+        });
+        EMFFilter filter = new EMFFilter();
+        filter.addDevice("Other");
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.createFilter(filter));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.setFilterDeclaration(true));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.start());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.subscribe(mTopic));
+
+        // Filter reaches the publisher asynchronously, until then the event
+        // which fails to encode is not skipped. Subscriptions are read when
+        // an event is written or skipped.
+        Event wrong = TestUtils.getWrongEvent();
+        EMFErrorCode result = EMFErrorCode.EMF_ERROR;
+        for (int i = 0; i < 100 && EMFErrorCode.EMF_OK != result; i++) {
+            Thread.sleep(50);
+            assertEquals(EMFErrorCode.EMF_OK,
+                    pubInstance.publish(mTopic, TestUtils.getEdgeXEvent()));
+            result = pubInstance.publish(mTopic, wrong);
+        }
+        assertEquals(EMFErrorCode.EMF_OK, result);
+
+        // Event accepted by the filter is encoded and delivered
+        wrong.setDevice("Other");
+        assertEquals(EMFErrorCode.EMF_ERROR, pubInstance.publish(mTopic, wrong));
+        Event event = TestUtils.getEdgeXEvent();
+        event.setDevice("Other");
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.publish(mTopic, TestUtils.getEdgeXEvent()));
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.publish(mTopic, event));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (devices.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+        assertEquals(1, devices.size());
+        assertEquals("Other", devices.get(0));
+
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.terminate());
+    }
+
+    @Test
+    public void subscriptionTrackingTest() {
+        EMFAPI apiInstance = EMFAPI.getInstance();
+        assertNotNull(apiInstance);
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.initialize());
+        EMFPublisher pubInstance = new EMFPublisher(mPort, mCallback);
+        assertNotNull(pubInstance);
+        assertFalse(pubInstance.isSubscriptionTracking());
+        assertTrue(pubInstance.hasSubscriber(mTopic));
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.setSubscriptionTracking(true));
+        assertTrue(pubInstance.isSubscriptionTracking());
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.start());
+        assertEquals(EMFErrorCode.EMF_ERROR, pubInstance.setSubscriptionTracking(false));
+
+        // No subscriber is connected, events are skipped before encoding, so
+        // an event which fails to encode is not an error
+        assertFalse(pubInstance.hasSubscriber(mTopic));
+        assertFalse(pubInstance.hasSubscriber("invalid topic"));
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.publish(mTopic, TestUtils.getEdgeXEvent()));
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.publish(mTopic, TestUtils.getWrongEvent()));
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.publish(TestUtils.getWrongEvent()));
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.terminate());
+    }
+
+    @Test
+    public void subscriptionTrackingResubscribeTest() throws InterruptedException {
+        EMFAPI apiInstance = EMFAPI.getInstance();
+        assertNotNull(apiInstance);
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.initialize());
+        EMFSocketConfig config = new EMFSocketConfig();
+        config.setEndpoint(EMFEndpoint.inproc("emf-publisher-resubscribe-test"));
+        EMFPublisher pubInstance = new EMFPublisher(config, mCallback, EMFPublishMode.EMF_SYNC, 1);
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.setSubscriptionTracking(true));
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.start());
+        EMFSubscriber subInstance = new EMFSubscriber(config, null, null);
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.setPullMode(true));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.start());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.subscribe("a/"));
+        for (int i = 0; i < 100 && false == pubInstance.hasSubscriber("a/"); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(pubInstance.hasSubscriber("a/"));
+        assertFalse(pubInstance.hasSubscriber("b/"));
+
+        // Socket fails on the un-subscription and may miss the subscription
+        // after it, publisher stops skipping events then
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.unSubscribe("a/"));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.subscribe("b/"));
+        for (int i = 0; i < 100 && false == pubInstance.hasSubscriber("b/"); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(pubInstance.hasSubscriber("b/"));
+        assertTrue(pubInstance.hasSubscriber("c/"));
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.publish("b/", TestUtils.getEdgeXEvent()));
+
+        // Event is encoded, so an event which fails to encode is an error
+        assertEquals(EMFErrorCode.EMF_ERROR, pubInstance.publish("c/", TestUtils.getWrongEvent()));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.terminate());
+    }
+
+    @Test
+    public void publishAsyncNegativeTest() {
+        EMFAPI apiInstance = EMFAPI.getInstance();
+        EMFPublisher pubInstance = new EMFPublisher(mPort, mCallback,
+                EMFPublishMode.EMF_ASYNC);
+        assertNotNull(pubInstance);
+        assertEquals(EMFErrorCode.EMF_ERROR, pubInstance.start());
+
+        Event event = TestUtils.getEdgeXEvent();
+
+        assertEquals(EMFErrorCode.EMF_ERROR, pubInstance.publish(event));
+        assertEquals(EMFErrorCode.EMF_ERROR, pubInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.terminate());
+    }
+
     @Test
     public void publishTopicTest() {
         EMFAPI apiInstance = EMFAPI.getInstance();
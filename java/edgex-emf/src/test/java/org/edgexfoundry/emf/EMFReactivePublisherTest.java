@@ -0,0 +1,179 @@
+package org.edgexfoundry.emf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+public class EMFReactivePublisherTest {
+
+    private static final String mTopic = "topic";
+    private static final int mPort = 5565;
+    private EMFAPI mApiInstance;
+    private EMFPublisher mPubInstance;
+    private EMFSubscriber mSubInstance;
+
+    @Before
+    public void setUp() {
+        mApiInstance = EMFAPI.getInstance();
+        assertEquals(EMFErrorCode.EMF_OK, mApiInstance.initialize());
+        mPubInstance = new EMFPublisher(mPort, null);
+        assertEquals(EMFErrorCode.EMF_OK, mPubInstance.start());
+        mSubInstance = new EMFSubscriber("localhost", mPort, null);
+        assertEquals(EMFErrorCode.EMF_OK, mSubInstance.setPullMode(true));
+        assertEquals(EMFErrorCode.EMF_OK, mSubInstance.start());
+        assertEquals(EMFErrorCode.EMF_OK, mSubInstance.subscribe(mTopic));
+    }
+
+    @After
+    public void tearDown() {
+        assertEquals(EMFErrorCode.EMF_OK, mSubInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, mPubInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, mApiInstance.terminate());
+    }
+
+    @Test
+    public void requestTest() throws InterruptedException {
+        EMFReactivePublisher publisher = new EMFReactivePublisher(mSubInstance, 2);
+        TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        assertNotNull(subscriber.mSubscription);
+
+        subscriber.mSubscription.request(3);
+        publishUntil(subscriber, 3);
+        assertEquals(3, subscriber.mNext.get());
+
+        // No demand, events wait in the socket
+        publish(5);
+        Thread.sleep(200);
+        assertEquals(3, subscriber.mNext.get());
+
+        subscriber.mSubscription.request(2);
+        publishUntil(subscriber, 5);
+        Thread.sleep(200);
+        assertEquals(5, subscriber.mNext.get());
+        subscriber.mSubscription.cancel();
+    }
+
+    @Test
+    public void cancelTest() throws InterruptedException {
+        EMFReactivePublisher publisher = new EMFReactivePublisher(mSubInstance);
+        TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.mSubscription.request(Long.MAX_VALUE);
+        publishUntil(subscriber, 1);
+
+        subscriber.mSubscription.cancel();
+        Thread.sleep(200);
+        int count = subscriber.mNext.get();
+        publish(5);
+        Thread.sleep(200);
+        assertEquals(count, subscriber.mNext.get());
+        assertEquals(1, subscriber.mTerminated.getCount());
+    }
+
+    @Test
+    public void completeTest() throws InterruptedException {
+        EMFReactivePublisher publisher = new EMFReactivePublisher(mSubInstance);
+        TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.mSubscription.request(1);
+
+        assertEquals(EMFErrorCode.EMF_OK, mSubInstance.stop());
+        assertTrue(subscriber.mTerminated.await(5, TimeUnit.SECONDS));
+        assertTrue(subscriber.mCompleted);
+        assertNull(subscriber.mError);
+    }
+
+    @Test
+    public void receiveErrorTest() throws InterruptedException {
+        EMFReactivePublisher publisher = new EMFReactivePublisher(mSubInstance);
+        TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+
+        // Subscriber is restarted out of pull mode before there is demand
+        assertEquals(EMFErrorCode.EMF_OK, mSubInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, mSubInstance.setPullMode(false));
+        assertEquals(EMFErrorCode.EMF_OK, mSubInstance.start());
+        subscriber.mSubscription.request(1);
+        assertTrue(subscriber.mTerminated.await(5, TimeUnit.SECONDS));
+        assertTrue(subscriber.mError instanceof IllegalStateException);
+        assertFalse(subscriber.mCompleted);
+    }
+
+    @Test
+    public void negativeTest() throws InterruptedException {
+        // Not in pull mode
+        EMFSubscriber subInstance = new EMFSubscriber("localhost", mPort, null);
+        TestSubscriber subscriber = new TestSubscriber();
+        new EMFReactivePublisher(subInstance).subscribe(subscriber);
+        assertTrue(subscriber.mError instanceof IllegalStateException);
+
+        // Second subscriber
+        EMFReactivePublisher publisher = new EMFReactivePublisher(mSubInstance);
+        TestSubscriber first = new TestSubscriber();
+        publisher.subscribe(first);
+        subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        assertTrue(subscriber.mError instanceof IllegalStateException);
+
+        // Non-positive request
+        first.mSubscription.request(0);
+        assertTrue(first.mTerminated.await(5, TimeUnit.SECONDS));
+        assertTrue(first.mError instanceof IllegalArgumentException);
+    }
+
+    private void publish(int count) {
+        for (int i = 0; i < count; i++) {
+            assertEquals(EMFErrorCode.EMF_OK, mPubInstance.publish(mTopic, TestUtils.getEdgeXEvent()));
+        }
+    }
+
+    private void publishUntil(TestSubscriber subscriber, int count) throws InterruptedException {
+        // Subscription reaches the publisher asynchronously
+        long deadline = System.currentTimeMillis() + 5000;
+        while (subscriber.mNext.get() < count && System.currentTimeMillis() < deadline) {
+            publish(1);
+            Thread.sleep(50);
+        }
+        assertTrue(subscriber.mNext.get() >= count);
+    }
+
+    private static class TestSubscriber implements Subscriber<EMFTopicEvent> {
+        volatile Subscription mSubscription;
+        final AtomicInteger mNext = new AtomicInteger();
+        final CountDownLatch mTerminated = new CountDownLatch(1);
+        volatile Throwable mError;
+        volatile boolean mCompleted;
+
+        public void onSubscribe(Subscription subscription) {
+            mSubscription = subscription;
+        }
+
+        public void onNext(EMFTopicEvent event) {
+            assertNotNull(event.getEvent());
+            mNext.incrementAndGet();
+        }
+
+        public void onError(Throwable error) {
+            mError = error;
+            mTerminated.countDown();
+        }
+
+        public void onComplete() {
+            mCompleted = true;
+            mTerminated.countDown();
+        }
+    }
+}
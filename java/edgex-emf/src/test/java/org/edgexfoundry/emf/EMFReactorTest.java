@@ -0,0 +1,263 @@
+package org.edgexfoundry.emf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.emf.EMFSubscriber.EMFBatchSubCallback;
+import org.edgexfoundry.emf.EMFSubscriber.EMFSubCallback;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EMFReactorTest {
+
+    private static final String mTopic = "topic";
+    private static final int mPort = 5564;
+    private EMFAPI mApiInstance;
+
+    @Before
+    public void setUp() {
+        mApiInstance = EMFAPI.getInstance();
+        assertEquals(EMFErrorCode.EMF_OK, mApiInstance.initialize());
+    }
+
+    @After
+    public void tearDown() {
+        assertEquals(EMFErrorCode.EMF_OK, mApiInstance.terminate());
+    }
+
+    @Test
+    public void startStopTest() {
+        EMFReactor reactor = new EMFReactor(null, 2);
+        assertEquals(2, reactor.getThreadCount());
+        assertEquals(EMFErrorCode.EMF_OK, reactor.start());
+        assertEquals(EMFErrorCode.EMF_OK, reactor.start());
+        assertEquals(0, reactor.getSubscriberCount());
+        assertEquals(EMFErrorCode.EMF_OK, reactor.stop());
+        assertEquals(EMFErrorCode.EMF_OK, reactor.stop());
+    }
+
+    @Test
+    public void startNegativeTest() {
+        EMFReactor reactor = new EMFReactor(null, 0);
+        assertEquals(EMFErrorCode.EMF_ERROR, reactor.start());
+    }
+
+    @Test
+    public void setReactorTest() {
+        EMFReactor reactor = new EMFReactor();
+        EMFSubscriber subInstance = new EMFSubscriber("localhost", mPort, newCallback(null));
+        assertNull(subInstance.getReactor());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.setReactor(reactor));
+        assertEquals(reactor, subInstance.getReactor());
+
+        // Reactor is not started
+        assertEquals(EMFErrorCode.EMF_ERROR, subInstance.start());
+
+        assertEquals(EMFErrorCode.EMF_OK, reactor.start());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.start());
+        assertEquals(EMFErrorCode.EMF_ERROR, subInstance.setReactor(null));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, reactor.stop());
+    }
+
+    @Test
+    public void receiveTest() throws InterruptedException {
+        EMFReactor reactor = new EMFReactor(null, 2);
+        assertEquals(EMFErrorCode.EMF_OK, reactor.start());
+        EMFPublisher pubInstance = new EMFPublisher(mPort, null);
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.start());
+
+        int count = 5;
+        CountDownLatch received = new CountDownLatch(count);
+        List<EMFSubscriber> subInstances = new ArrayList<EMFSubscriber>();
+        for (int i = 0; i < count; i++) {
+            EMFSubscriber subInstance = new EMFSubscriber("localhost", mPort,
+                    newCallback(received));
+            assertEquals(EMFErrorCode.EMF_OK, subInstance.setReactor(reactor));
+            assertEquals(EMFErrorCode.EMF_OK, subInstance.start());
+            assertEquals(EMFErrorCode.EMF_OK, subInstance.subscribe(mTopic));
+            subInstances.add(subInstance);
+        }
+        assertEquals(count, reactor.getSubscriberCount());
+
+        publishUntil(pubInstance, received);
+
+        for (EMFSubscriber subInstance : subInstances) {
+            assertEquals(EMFErrorCode.EMF_OK, subInstance.stop());
+        }
+        assertEquals(0, reactor.getSubscriberCount());
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, reactor.stop());
+    }
+
+    @Test
+    public void stopInCallbackTest() throws InterruptedException {
+        EMFReactor reactor = new EMFReactor();
+        assertEquals(EMFErrorCode.EMF_OK, reactor.start());
+        EMFPublisher pubInstance = new EMFPublisher(mPort, null);
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.start());
+
+        final CountDownLatch stopped = new CountDownLatch(1);
+        final EMFSubscriber[] subInstance = new EMFSubscriber[1];
+        subInstance[0] = new EMFSubscriber("localhost", mPort, new EMFSubCallback() {
+            public void onMessageCB(Event event) {
+            }
+
+            public void onMessageCB(String topic, Event event) {
+                if (EMFErrorCode.EMF_OK == subInstance[0].stop()) {
+                    stopped.countDown();
+                }
+            }
+        });
+        assertEquals(EMFErrorCode.EMF_OK, subInstance[0].setReactor(reactor));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance[0].start());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance[0].subscribe(mTopic));
+
+        publishUntil(pubInstance, stopped);
+        assertEquals(0, reactor.getSubscriberCount());
+
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, reactor.stop());
+    }
+
+    @Test
+    public void stopInCallbackWhileStoppingTest() throws InterruptedException {
+        final EMFReactor reactor = new EMFReactor();
+        assertEquals(EMFErrorCode.EMF_OK, reactor.start());
+        EMFPublisher pubInstance = new EMFPublisher(mPort, null);
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.start());
+
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch stopping = new CountDownLatch(1);
+        final CountDownLatch stopped = new CountDownLatch(1);
+        final EMFSubscriber[] subInstance = new EMFSubscriber[1];
+        subInstance[0] = new EMFSubscriber("localhost", mPort, new EMFSubCallback() {
+            public void onMessageCB(Event event) {
+            }
+
+            public void onMessageCB(String topic, Event event) {
+                entered.countDown();
+                try {
+                    stopping.await(5, TimeUnit.SECONDS);
+                    // Reactor stop is joining this thread
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (EMFErrorCode.EMF_OK == subInstance[0].stop()) {
+                    stopped.countDown();
+                }
+            }
+        });
+        assertEquals(EMFErrorCode.EMF_OK, subInstance[0].setReactor(reactor));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance[0].start());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance[0].subscribe(mTopic));
+        publishUntil(pubInstance, entered);
+
+        final EMFErrorCode[] result = new EMFErrorCode[1];
+        Thread stopper = new Thread(new Runnable() {
+            public void run() {
+                result[0] = reactor.stop();
+            }
+        });
+        stopper.start();
+        stopping.countDown();
+        stopper.join(5000);
+        assertTrue(false == stopper.isAlive());
+        assertEquals(EMFErrorCode.EMF_OK, result[0]);
+        assertTrue(stopped.await(5, TimeUnit.SECONDS));
+        assertEquals(0, reactor.getSubscriberCount());
+
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.stop());
+    }
+
+    @Test
+    public void filterChangesTest() throws InterruptedException {
+        EMFReactor reactor = new EMFReactor();
+        assertEquals(EMFErrorCode.EMF_OK, reactor.start());
+        EMFPublisher pubInstance = new EMFPublisher(mPort, null);
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.setSubscriberFilters(true));
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.start());
+
+        // Socket is replaced on the reactor thread
+        CountDownLatch received = new CountDownLatch(1);
+        EMFSubscriber subInstance = new EMFSubscriber("localhost", mPort,
+                newCallback(received));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.setReactor(reactor));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.setFilterDeclaration(true));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.start());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.subscribe(mTopic));
+        EMFSubscriberTest.changeFilters(subInstance);
+
+        publishUntil(pubInstance, received);
+        assertEquals(1, reactor.getSubscriberCount());
+
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.stop());
+        assertEquals(0, reactor.getSubscriberCount());
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, reactor.stop());
+    }
+
+    @Test
+    public void batchLingerTest() throws InterruptedException {
+        EMFReactor reactor = new EMFReactor();
+        assertEquals(EMFErrorCode.EMF_OK, reactor.start());
+        EMFPublisher pubInstance = new EMFPublisher(mPort, null);
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.start());
+
+        // Batch never fills, it is delivered when linger time elapses
+        final CountDownLatch delivered = new CountDownLatch(1);
+        EMFSubscriber subInstance = new EMFSubscriber("localhost", mPort, null);
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.setReactor(reactor));
+        assertEquals(EMFErrorCode.EMF_OK,
+                subInstance.setBatchCallback(new EMFBatchSubCallback() {
+                    public void onMessages(List<EMFTopicEvent> events) {
+                        delivered.countDown();
+                    }
+                }, 100000, 50));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.start());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.subscribe(mTopic));
+
+        publishUntil(pubInstance, delivered);
+
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, reactor.stop());
+    }
+
+    private void publishUntil(EMFPublisher pubInstance, CountDownLatch latch)
+            throws InterruptedException {
+        // Subscriptions reach the publisher asynchronously
+        long deadline = System.currentTimeMillis() + 5000;
+        while (latch.getCount() > 0 && System.currentTimeMillis() < deadline) {
+            assertEquals(EMFErrorCode.EMF_OK, pubInstance.publish(mTopic, TestUtils.getEdgeXEvent()));
+            latch.await(50, TimeUnit.MILLISECONDS);
+        }
+        assertTrue(latch.getCount() == 0);
+    }
+
+    // Counts down once per subscriber
+    private EMFSubCallback newCallback(final CountDownLatch received) {
+        return new EMFSubCallback() {
+            private boolean mReceived;
+
+            public void onMessageCB(Event event) {
+            }
+
+            public void onMessageCB(String topic, Event event) {
+                if (null != received && false == mReceived) {
+                    mReceived = true;
+                    received.countDown();
+                }
+            }
+        };
+    }
+}
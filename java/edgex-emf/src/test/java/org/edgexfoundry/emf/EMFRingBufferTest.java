@@ -0,0 +1,90 @@
+package org.edgexfoundry.emf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+public class EMFRingBufferTest {
+
+    @Test
+    public void capacityTest() {
+        assertEquals(8, new EMFRingBuffer<Integer>(5).capacity());
+        assertEquals(16, new EMFRingBuffer<Integer>(16).capacity());
+        assertEquals(1, new EMFRingBuffer<Integer>(1).capacity());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacityNegativeTest() {
+        new EMFRingBuffer<Integer>(0);
+    }
+
+    @Test
+    public void offerPollTest() {
+        EMFRingBuffer<Integer> ring = new EMFRingBuffer<Integer>(4);
+        assertTrue(ring.isEmpty());
+        assertNull(ring.poll());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertEquals(4, ring.size());
+
+        // Ring is full
+        assertFalse(ring.offer(4));
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(Integer.valueOf(i), ring.poll());
+        }
+        assertTrue(ring.isEmpty());
+        assertNull(ring.poll());
+
+        // Wrap around
+        assertTrue(ring.offer(5));
+        assertEquals(Integer.valueOf(5), ring.poll());
+    }
+
+    @Test
+    public void multiProducerTest() throws InterruptedException {
+        final int producers = 4;
+        final int count = 10000;
+        final EMFRingBuffer<Integer> ring = new EMFRingBuffer<Integer>(64);
+        final CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            final int base = p * count;
+            new Thread(new Runnable() {
+                public void run() {
+                    for (int i = 0; i < count; i++) {
+                        while (!ring.offer(base + i)) {
+                            Thread.yield();
+                        }
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+
+        // Elements of every producer must come out in order
+        int[] last = new int[producers];
+        for (int p = 0; p < producers; p++) {
+            last[p] = p * count - 1;
+        }
+        int received = 0;
+        while (received < producers * count) {
+            Integer value = ring.poll();
+            if (null == value) {
+                Thread.yield();
+                continue;
+            }
+            int producer = value / count;
+            assertEquals(last[producer] + 1, value.intValue());
+            last[producer] = value;
+            received++;
+        }
+        done.await();
+        assertTrue(ring.isEmpty());
+    }
+}
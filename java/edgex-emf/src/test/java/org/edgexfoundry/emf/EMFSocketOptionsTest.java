@@ -0,0 +1,61 @@
+package org.edgexfoundry.emf;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.zeromq.ZMQ;
+
+public class EMFSocketOptionsTest {
+
+    @Test
+    public void defaultTest() {
+        EMFSocketOptions options = new EMFSocketOptions();
+        assertEquals(-1, options.getSendHighWaterMark());
+        assertEquals(-1, options.getReceiveHighWaterMark());
+        assertEquals(-1, options.getSendBufferSize());
+        assertEquals(-1, options.getReceiveBufferSize());
+        assertEquals(-1, options.getLinger());
+        assertEquals(-1, options.getTcpKeepAlive());
+        assertEquals(-1, options.getAffinity());
+    }
+
+    @Test
+    public void optionsNegativeTest() {
+        EMFSocketOptions options = new EMFSocketOptions();
+        assertEquals(EMFErrorCode.EMF_ERROR, options.setSendHighWaterMark(-2));
+        assertEquals(EMFErrorCode.EMF_ERROR, options.setReceiveHighWaterMark(-2));
+        assertEquals(EMFErrorCode.EMF_ERROR, options.setSendBufferSize(-2));
+        assertEquals(EMFErrorCode.EMF_ERROR, options.setReceiveBufferSize(-2));
+        assertEquals(EMFErrorCode.EMF_ERROR, options.setLinger(-2));
+        assertEquals(EMFErrorCode.EMF_ERROR, options.setAffinity(-2));
+        assertEquals(-1, options.getLinger());
+    }
+
+    @Test
+    public void applyTest() {
+        EMFSocketOptions options = new EMFSocketOptions();
+        assertEquals(EMFErrorCode.EMF_OK, options.setSendHighWaterMark(100000));
+        assertEquals(EMFErrorCode.EMF_OK, options.setReceiveHighWaterMark(200000));
+        assertEquals(EMFErrorCode.EMF_OK, options.setSendBufferSize(1 << 20));
+        assertEquals(EMFErrorCode.EMF_OK, options.setLinger(0));
+        assertEquals(EMFErrorCode.EMF_OK, options.setTcpKeepAlive(true));
+        assertEquals(EMFErrorCode.EMF_OK, options.setAffinity(2));
+
+        // Copy is not affected by later changes
+        EMFSocketOptions copy = options.copy();
+        options.setLinger(100);
+        assertEquals(0, copy.getLinger());
+
+        ZMQ.Context context = ZMQ.context(1);
+        ZMQ.Socket socket = context.socket(ZMQ.PUB);
+        copy.apply(socket);
+        assertEquals(100000, socket.getSndHWM());
+        assertEquals(200000, socket.getRcvHWM());
+        assertEquals(1 << 20, socket.getSendBufferSize());
+        assertEquals(0, socket.getLinger());
+        assertEquals(1, socket.getTCPKeepAlive());
+        assertEquals(2, socket.getAffinity());
+        socket.close();
+        context.term();
+    }
+}
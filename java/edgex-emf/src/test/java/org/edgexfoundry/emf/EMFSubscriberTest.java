@@ -1,11 +1,20 @@
 package org.edgexfoundry.emf;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.emf.EMFSubscriber.EMFBatchSubCallback;
 import org.edgexfoundry.emf.EMFSubscriber.EMFSubCallback;
 import org.junit.Before;
 import org.junit.Test;
@@ -40,6 +49,579 @@ public class EMFSubscriberTest {
         assertNotNull(instance);
     }
 
+    @Test
+    public void constructorTest4() {
+        EMFDispatcher dispatcher = new EMFDispatcher(2);
+        EMFSubscriber instance = new EMFSubscriber(mip, mPort, mCallback, dispatcher);
+        assertNotNull(instance);
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void startDispatcherTest() {
+        EMFAPI apiInstance = EMFAPI.getInstance();
+        assertNotNull(apiInstance);
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.initialize());
+        EMFDispatcher dispatcher = new EMFDispatcher(2);
+        EMFSubscriber subInstance = new EMFSubscriber(mip, mPort, mCallback, dispatcher);
+        assertNotNull(subInstance);
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.start());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.subscribe());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.stop());
+        dispatcher.shutdown();
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.terminate());
+    }
+
+    @Test
+    public void topicCacheHitRatioTest() {
+        EMFAPI apiInstance = EMFAPI.getInstance();
+        assertNotNull(apiInstance);
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.initialize());
+        EMFSubscriber subInstance = new EMFSubscriber(mip, mPort, mCallback);
+        assertNotNull(subInstance);
+        assertEquals(0.0, subInstance.getTopicCacheHitRatio(), 0.0);
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.terminate());
+    }
+
+    @Test
+    public void createFilterTest() {
+        EMFAPI apiInstance = EMFAPI.getInstance();
+        assertNotNull(apiInstance);
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.initialize());
+        EMFSubscriber subInstance = new EMFSubscriber(mip, mPort, mCallback);
+        assertNotNull(subInstance);
+
+        EMFFilter filter = new EMFFilter();
+        filter.addDevice("device1");
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.createFilter(filter));
+        // Creating again replaces the filter
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.createFilter(filter));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.removeFilter(filter));
+        assertEquals(EMFErrorCode.EMF_ERROR, subInstance.removeFilter(filter));
+        assertEquals(EMFErrorCode.EMF_ERROR, subInstance.createFilter(null));
+        assertEquals(EMFErrorCode.EMF_ERROR, subInstance.removeFilter(null));
+
+        // Filter too long to declare to publisher
+        StringBuilder device = new StringBuilder();
+        while (device.length() <= 65535) {
+            device.append("device1");
+        }
+        filter = new EMFFilter();
+        filter.addDevice(device.toString());
+        assertFalse(subInstance.isFilterDeclaration());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.createFilter(filter));
+        assertEquals(EMFErrorCode.EMF_ERROR, subInstance.setFilterDeclaration(true));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.removeFilter(filter));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.setFilterDeclaration(true));
+        assertTrue(subInstance.isFilterDeclaration());
+        assertEquals(EMFErrorCode.EMF_ERROR, subInstance.createFilter(filter));
+        assertEquals(EMFErrorCode.EMF_ERROR, subInstance.removeFilter(filter));
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.terminate());
+    }
+
+    @Test
+    public void filterChangesTest() throws InterruptedException {
+        EMFAPI apiInstance = EMFAPI.getInstance();
+        assertNotNull(apiInstance);
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.initialize());
+        EMFPublisher pubInstance = new EMFPublisher(mPort, null);
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.setSubscriberFilters(true));
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.start());
+        final AtomicInteger received = new AtomicInteger();
+        EMFSubscriber subInstance = new EMFSubscriber("localhost", mPort, new EMFSubCallback() {
+            public void onMessageCB(Event event) {
+            }
+
+            public void onMessageCB(String topic, Event event) {
+                received.incrementAndGet();
+            }
+        });
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.setFilterDeclaration(true));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.start());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.subscribe(mTopic));
+
+        // Socket keeping the declarations of earlier filters is replaced,
+        // topic subscriptions and the latest filters are kept
+        changeFilters(subInstance);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (0 == received.get() && System.currentTimeMillis() < deadline) {
+            assertEquals(EMFErrorCode.EMF_OK,
+                    pubInstance.publish(mTopic, TestUtils.getEdgeXEvent()));
+            Thread.sleep(50);
+        }
+        assertTrue(received.get() > 0);
+
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.terminate());
+    }
+
+    @Test
+    public void filterChangesPullTest() throws InterruptedException {
+        EMFAPI apiInstance = EMFAPI.getInstance();
+        assertNotNull(apiInstance);
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.initialize());
+        EMFPublisher pubInstance = new EMFPublisher(mPort, null);
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.setSubscriberFilters(true));
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.start());
+        EMFSubscriber subInstance = new EMFSubscriber("localhost", mPort, null);
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.setPullMode(true));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.setFilterDeclaration(true));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.start());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.subscribe(mTopic));
+
+        changeFilters(subInstance);
+        EMFTopicEvent received = null;
+        for (int i = 0; i < 100 && null == received; i++) {
+            assertEquals(EMFErrorCode.EMF_OK,
+                    pubInstance.publish(mTopic, TestUtils.getEdgeXEvent()));
+            received = subInstance.poll(50);
+        }
+        assertNotNull(received);
+        assertEquals("Test", received.getEvent().getDevice());
+
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.terminate());
+    }
+
+    @Test
+    public void filterChangesWithoutDeclarationTest() throws InterruptedException {
+        EMFAPI apiInstance = EMFAPI.getInstance();
+        assertNotNull(apiInstance);
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.initialize());
+        EMFPublisher pubInstance = new EMFPublisher(mPort, null);
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.start());
+        EMFSubscriber subInstance = new EMFSubscriber("localhost", mPort, null);
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.setPullMode(true));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.start());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.subscribe(mTopic));
+
+        // Subscription reaches the publisher asynchronously
+        EMFTopicEvent received = null;
+        for (int i = 0; i < 100 && null == received; i++) {
+            assertEquals(EMFErrorCode.EMF_OK,
+                    pubInstance.publish(mTopic, TestUtils.getEdgeXEvent()));
+            received = subInstance.poll(50);
+        }
+        assertNotNull(received);
+        while (null != subInstance.poll(100)) {
+            // Drop the events published while connecting
+        }
+
+        // Socket is not replaced, no event in flight is lost
+        EMFFilter other = new EMFFilter();
+        other.addDevice("Other");
+        for (int i = 0; i < 100; i++) {
+            assertEquals(EMFErrorCode.EMF_OK,
+                    pubInstance.publish(mTopic, TestUtils.getEdgeXEvent()));
+            assertEquals(EMFErrorCode.EMF_OK, subInstance.createFilter(other));
+            assertEquals(EMFErrorCode.EMF_OK, subInstance.removeFilter(other));
+        }
+        int count = 0;
+        while (null != subInstance.poll(500)) {
+            count++;
+        }
+        assertEquals(100, count);
+
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.terminate());
+    }
+
+    // Change filters enough times to replace the socket, ending with a filter
+    // accepting the test events
+    static void changeFilters(EMFSubscriber subInstance) {
+        EMFFilter other = new EMFFilter();
+        other.addDevice("Other");
+        for (int i = 0; i < 100; i++) {
+            assertEquals(EMFErrorCode.EMF_OK, subInstance.createFilter(other));
+            assertEquals(EMFErrorCode.EMF_OK, subInstance.removeFilter(other));
+        }
+        EMFFilter test = new EMFFilter();
+        test.addDevice("Test");
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.createFilter(test));
+    }
+
+    @Test
+    public void lazyDecodingTest() {
+        EMFAPI apiInstance = EMFAPI.getInstance();
+        assertNotNull(apiInstance);
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.initialize());
+        EMFSubscriber subInstance = new EMFSubscriber(mip, mPort, mCallback);
+        assertNotNull(subInstance);
+        assertEquals(false, subInstance.isLazyDecoding());
+        subInstance.setLazyDecoding(true);
+        assertEquals(true, subInstance.isLazyDecoding());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.start());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.subscribe());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.terminate());
+    }
+
+    @Test
+    public void drainBatchSizeTest() {
+        EMFAPI apiInstance = EMFAPI.getInstance();
+        assertNotNull(apiInstance);
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.initialize());
+        EMFSubscriber subInstance = new EMFSubscriber(mip, mPort, mCallback);
+        assertNotNull(subInstance);
+        assertEquals(32, subInstance.getDrainBatchSize());
+        assertEquals(EMFErrorCode.EMF_ERROR, subInstance.setDrainBatchSize(0));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.setDrainBatchSize(1));
+        assertEquals(1, subInstance.getDrainBatchSize());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.start());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.subscribe());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.setDrainBatchSize(8));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.terminate());
+    }
+
+    @Test
+    public void drainBatchReceiveTest() throws InterruptedException {
+        EMFAPI apiInstance = EMFAPI.getInstance();
+        assertNotNull(apiInstance);
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.initialize());
+        EMFPublisher pubInstance = new EMFPublisher(mPort, null);
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.start());
+        final AtomicInteger received = new AtomicInteger();
+        EMFSubscriber subInstance = new EMFSubscriber("localhost", mPort, new EMFSubCallback() {
+            public void onMessageCB(Event event) {
+            }
+
+            public void onMessageCB(String topic, Event event) {
+                received.incrementAndGet();
+            }
+        });
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.setDrainBatchSize(8));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.start());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.subscribe(mTopic));
+
+        // Bursts are received in batches of 8 events
+        Event event = TestUtils.getEdgeXEvent();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (received.get() < 100 && System.currentTimeMillis() < deadline) {
+            for (int i = 0; i < 20; i++) {
+                assertEquals(EMFErrorCode.EMF_OK, pubInstance.publish(mTopic, event));
+            }
+            Thread.sleep(10);
+        }
+        assertTrue(received.get() >= 100);
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.terminate());
+    }
+
+    @Test
+    public void batchCallbackTest() {
+        EMFAPI apiInstance = EMFAPI.getInstance();
+        assertNotNull(apiInstance);
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.initialize());
+        EMFBatchSubCallback callback = new EMFBatchSubCallback() {
+            public void onMessages(List<EMFTopicEvent> events) {
+            }
+        };
+        EMFSubscriber subInstance = new EMFSubscriber(mip, mPort, mCallback);
+        assertNotNull(subInstance);
+        assertNull(subInstance.getBatchCallback());
+        assertEquals(EMFErrorCode.EMF_ERROR, subInstance.setBatchCallback(callback, 0, 0));
+        assertEquals(EMFErrorCode.EMF_ERROR, subInstance.setBatchCallback(callback, 10, -1));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.setBatchCallback(callback, 10, 100));
+        assertEquals(callback, subInstance.getBatchCallback());
+        assertEquals(10, subInstance.getBatchSize());
+        assertEquals(100, subInstance.getBatchLinger());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.start());
+        assertEquals(EMFErrorCode.EMF_ERROR, subInstance.setBatchCallback(null));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.terminate());
+    }
+
+    @Test
+    public void batchReceiveTest() throws InterruptedException {
+        final List<Integer> sizes = receiveBatches(4, 0);
+        for (int size : sizes) {
+            assertTrue(size >= 1 && size <= 4);
+        }
+    }
+
+    @Test
+    public void batchLingerTest() throws InterruptedException {
+        // Bursts of 20 events wait for the batch to fill up to 50 events or
+        // the linger time, the last batch is delivered by stop
+        final List<Integer> sizes = receiveBatches(50, 200);
+        assertTrue(sizes.get(0) > 20);
+        for (int size : sizes) {
+            assertTrue(size <= 50);
+        }
+    }
+
+    private List<Integer> receiveBatches(int batchSize, long linger) throws InterruptedException {
+        EMFAPI apiInstance = EMFAPI.getInstance();
+        assertNotNull(apiInstance);
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.initialize());
+        EMFPublisher pubInstance = new EMFPublisher(mPort, null);
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.start());
+        final List<Integer> sizes = new CopyOnWriteArrayList<Integer>();
+        final AtomicInteger received = new AtomicInteger();
+        EMFSubscriber subInstance = new EMFSubscriber("localhost", mPort, null);
+        assertEquals(EMFErrorCode.EMF_OK,
+                subInstance.setBatchCallback(new EMFBatchSubCallback() {
+                    public void onMessages(List<EMFTopicEvent> events) {
+                        for (EMFTopicEvent event : events) {
+                            assertEquals(mTopic + "/", event.getTopic());
+                        }
+                        sizes.add(events.size());
+                        received.addAndGet(events.size());
+                    }
+                }, batchSize, linger));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.start());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.subscribe(mTopic));
+
+        Event event = TestUtils.getEdgeXEvent();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (received.get() < 100 && System.currentTimeMillis() < deadline) {
+            for (int i = 0; i < 20; i++) {
+                assertEquals(EMFErrorCode.EMF_OK, pubInstance.publish(mTopic, event));
+            }
+            Thread.sleep(10);
+        }
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.stop());
+        assertTrue(received.get() >= 100);
+        return sizes;
+    }
+
+    @Test
+    public void pullModeTest() {
+        EMFAPI apiInstance = EMFAPI.getInstance();
+        assertNotNull(apiInstance);
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.initialize());
+        EMFSubscriber subInstance = new EMFSubscriber(mip, mPort, null);
+        assertEquals(false, subInstance.isPullMode());
+        assertNull(subInstance.poll(0));
+        assertNull(subInstance.receiveBatch(10, 0));
+
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.setReactor(new EMFReactor()));
+        assertEquals(EMFErrorCode.EMF_ERROR, subInstance.setPullMode(true));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.setReactor(null));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.setPullMode(true));
+        assertEquals(true, subInstance.isPullMode());
+        assertEquals(EMFErrorCode.EMF_ERROR, subInstance.setReactor(new EMFReactor()));
+        assertNull(subInstance.receiveBatch(0, 0));
+
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.start());
+        assertEquals(EMFErrorCode.EMF_ERROR, subInstance.setPullMode(false));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.subscribe());
+        assertNull(subInstance.poll(0));
+        assertNull(subInstance.poll(10));
+        assertEquals(0, subInstance.receiveBatch(10, 10).size());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.stop());
+        assertNull(subInstance.poll(-1));
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.terminate());
+    }
+
+    @Test
+    public void pollTest() throws InterruptedException {
+        EMFAPI apiInstance = EMFAPI.getInstance();
+        assertNotNull(apiInstance);
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.initialize());
+        EMFPublisher pubInstance = new EMFPublisher(mPort, null);
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.start());
+        EMFSubscriber subInstance = new EMFSubscriber("localhost", mPort, null);
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.setPullMode(true));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.start());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.subscribe(mTopic));
+
+        // Subscription reaches the publisher asynchronously
+        EMFTopicEvent received = null;
+        for (int i = 0; i < 100 && null == received; i++) {
+            assertEquals(EMFErrorCode.EMF_OK,
+                    pubInstance.publish(mTopic, TestUtils.getEdgeXEvent()));
+            received = subInstance.poll(50);
+        }
+        assertNotNull(received);
+        assertEquals(mTopic + "/", received.getTopic());
+        assertNotNull(received.getEvent());
+
+        // Events wait in the socket until pulled
+        for (int i = 0; i < 10; i++) {
+            assertEquals(EMFErrorCode.EMF_OK,
+                    pubInstance.publish(mTopic, TestUtils.getEdgeXEvent()));
+        }
+        int count = 0;
+        long deadline = System.currentTimeMillis() + 5000;
+        while (count < 10 && System.currentTimeMillis() < deadline) {
+            List<EMFTopicEvent> events = subInstance.receiveBatch(4, 100);
+            assertTrue(events.size() <= 4);
+            count += events.size();
+        }
+        assertTrue(count >= 10);
+
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.terminate());
+    }
+
+    @Test
+    public void pollStopTest() throws InterruptedException {
+        EMFAPI apiInstance = EMFAPI.getInstance();
+        assertNotNull(apiInstance);
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.initialize());
+        final EMFSubscriber subInstance = new EMFSubscriber(mip, mPort, null);
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.setPullMode(true));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.start());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.subscribe());
+
+        // Stop wakes up the thread waiting without timeout
+        final CountDownLatch returned = new CountDownLatch(1);
+        Thread puller = new Thread(new Runnable() {
+            public void run() {
+                if (null == subInstance.poll(-1)) {
+                    returned.countDown();
+                }
+            }
+        });
+        puller.start();
+        Thread.sleep(100);
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.stop());
+        assertTrue(returned.await(5, TimeUnit.SECONDS));
+        puller.join();
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.terminate());
+    }
+
+    @Test
+    public void socketOptionsTest() {
+        EMFAPI apiInstance = EMFAPI.getInstance();
+        assertNotNull(apiInstance);
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.initialize());
+        EMFSocketOptions options = new EMFSocketOptions();
+        options.setReceiveHighWaterMark(100000);
+        options.setReceiveBufferSize(1 << 20);
+        options.setLinger(0);
+        EMFSocketConfig config = new EMFSocketConfig();
+        config.setEndpoint(EMFEndpoint.tcp(mip, mPort));
+        config.setOptions(options);
+        EMFSubscriber subInstance = new EMFSubscriber(config, newCallback(), null);
+        assertNotNull(subInstance);
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.start());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.subscribe());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.terminate());
+    }
+
+    @Test
+    public void subscribeCallbackTest() {
+        EMFAPI apiInstance = EMFAPI.getInstance();
+        assertNotNull(apiInstance);
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.initialize());
+        EMFSubCallback callback = newCallback();
+        EMFSubscriber subInstance = new EMFSubscriber(mip, mPort, callback);
+        assertNotNull(subInstance);
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.start());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.subscribe("home/livingroom", callback));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.subscribe("home/+/temperature/", callback));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.subscribe("+/", callback));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.unSubscribe("home/livingroom", callback));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.unSubscribe("home/+/temperature/", callback));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.unSubscribe("+/", callback));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.terminate());
+    }
+
+    @Test
+    public void subscribeCallbackNegativeTest() {
+        EMFAPI apiInstance = EMFAPI.getInstance();
+        assertNotNull(apiInstance);
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.initialize());
+        EMFSubCallback callback = newCallback();
+        EMFSubscriber subInstance = new EMFSubscriber(mip, mPort, callback);
+        assertNotNull(subInstance);
+
+        // Subscribe before start
+        assertEquals(EMFErrorCode.EMF_ERROR, subInstance.subscribe("home/", callback));
+        assertEquals(EMFErrorCode.EMF_ERROR, subInstance.unSubscribe("home/", callback));
+
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.start());
+        assertEquals(EMFErrorCode.EMF_ERROR, subInstance.subscribe("home/", null));
+        assertEquals(EMFErrorCode.EMF_INVALID_TOPIC, subInstance.subscribe("home/+room/", callback));
+        assertEquals(EMFErrorCode.EMF_INVALID_TOPIC, subInstance.subscribe("home/#/", callback));
+        assertEquals(EMFErrorCode.EMF_INVALID_TOPIC, subInstance.subscribe("", callback));
+        assertEquals(EMFErrorCode.EMF_INVALID_TOPIC, subInstance.unSubscribe(null, callback));
+        assertEquals(EMFErrorCode.EMF_ERROR, subInstance.unSubscribe("home/", callback));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.terminate());
+    }
+
+    @Test
+    public void routingDispatchTest() throws InterruptedException {
+        EMFAPI apiInstance = EMFAPI.getInstance();
+        assertNotNull(apiInstance);
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.initialize());
+        EMFPublisher pubInstance = new EMFPublisher(mPort, null);
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.start());
+        final List<String> mainTopics = new CopyOnWriteArrayList<String>();
+        final List<String> routeTopics = new CopyOnWriteArrayList<String>();
+        EMFSubscriber subInstance = new EMFSubscriber("localhost", mPort, new EMFSubCallback() {
+            public void onMessageCB(Event event) {
+            }
+
+            public void onMessageCB(String topic, Event event) {
+                mainTopics.add(topic);
+            }
+        });
+        EMFSubCallback route = new EMFSubCallback() {
+            public void onMessageCB(Event event) {
+            }
+
+            public void onMessageCB(String topic, Event event) {
+                routeTopics.add(topic);
+            }
+        };
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.start());
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.subscribe("home/+/temperature/", route));
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.subscribe("office/"));
+
+        // Subscriptions reach the publisher asynchronously
+        Event event = TestUtils.getEdgeXEvent();
+        for (int i = 0; i < 100 && (mainTopics.isEmpty() || routeTopics.isEmpty()); i++) {
+            assertEquals(EMFErrorCode.EMF_OK,
+                    pubInstance.publish("home/kitchen/temperature/", event));
+            assertEquals(EMFErrorCode.EMF_OK, pubInstance.publish("office/desk/", event));
+            Thread.sleep(50);
+        }
+        assertFalse(routeTopics.isEmpty());
+        assertFalse(mainTopics.isEmpty());
+
+        // Topic of the socket subscription matching no pattern is dropped,
+        // events of a socket are received in order
+        int mainCount = mainTopics.size();
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.publish("home/kitchen/humidity/", event));
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.publish("office/desk/", event));
+        for (int i = 0; i < 100 && mainTopics.size() == mainCount; i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(mainTopics.size() > mainCount);
+        for (String topic : routeTopics) {
+            assertEquals("home/kitchen/temperature/", topic);
+        }
+        for (String topic : mainTopics) {
+            assertEquals("office/desk/", topic);
+        }
+        assertEquals(EMFErrorCode.EMF_OK, subInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, pubInstance.stop());
+        assertEquals(EMFErrorCode.EMF_OK, apiInstance.terminate());
+    }
+
+    private static EMFSubCallback newCallback() {
+        return new EMFSubCallback() {
+            public void onMessageCB(Event event) {
+            }
+
+            public void onMessageCB(String topic, Event event) {
+            }
+        };
+    }
+
     @Test
     public void startTest() {
         EMFAPI apiInstance = EMFAPI.getInstance();
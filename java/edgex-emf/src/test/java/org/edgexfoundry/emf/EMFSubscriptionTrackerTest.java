@@ -0,0 +1,159 @@
+package org.edgexfoundry.emf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.edgexfoundry.domain.core.Event;
+import org.junit.Test;
+
+public class EMFSubscriptionTrackerTest {
+
+    private static byte[] message(boolean subscribe, byte[] subscription) {
+        byte[] message = new byte[subscription.length + 1];
+        message[0] = (byte) (subscribe ? 1 : 0);
+        System.arraycopy(subscription, 0, message, 1, subscription.length);
+        return message;
+    }
+
+    private static EMFFilter deviceFilter(String device) {
+        EMFFilter filter = new EMFFilter();
+        filter.addDevice(device);
+        return filter;
+    }
+
+    @Test
+    public void noFilterTest() {
+        EMFSubscriptionTracker tracker = new EMFSubscriptionTracker();
+        assertEquals(0, tracker.getFilterCount());
+        assertTrue(tracker.accept(TestUtils.getEdgeXEvent()));
+    }
+
+    @Test
+    public void declaredFilterTest() {
+        EMFSubscriptionTracker tracker = new EMFSubscriptionTracker();
+        byte[] other = deviceFilter("Other").toSubscription(1L, 1);
+        tracker.onSubscription(message(true, other));
+        assertEquals(1, tracker.getFilterCount());
+        Event event = TestUtils.getEdgeXEvent();
+        assertFalse(tracker.accept(event));
+        event.setDevice("Other");
+        assertTrue(tracker.accept(event));
+
+        // Another subscriber accepting all the events
+        byte[] all = new EMFFilter().toSubscription(2L, 1);
+        tracker.onSubscription(message(true, all));
+        assertEquals(2, tracker.getFilterCount());
+        assertTrue(tracker.accept(TestUtils.getEdgeXEvent()));
+
+        // Subscribers disconnected
+        tracker.onSubscription(message(false, all));
+        tracker.onSubscription(message(false, other));
+        assertEquals(0, tracker.getFilterCount());
+        assertTrue(tracker.accept(TestUtils.getEdgeXEvent()));
+    }
+
+    @Test
+    public void generationTest() {
+        EMFSubscriptionTracker tracker = new EMFSubscriptionTracker();
+        byte[] first = deviceFilter("Other").toSubscription(1L, 1);
+        byte[] second = deviceFilter("Test").toSubscription(1L, 2);
+        tracker.onSubscription(message(true, first));
+        tracker.onSubscription(message(true, second));
+        assertEquals(1, tracker.getFilterCount());
+        assertTrue(tracker.accept(TestUtils.getEdgeXEvent()));
+
+        // Generations may be received in any order on reconnection
+        tracker = new EMFSubscriptionTracker();
+        tracker.onSubscription(message(true, second));
+        tracker.onSubscription(message(true, first));
+        assertEquals(1, tracker.getFilterCount());
+        assertTrue(tracker.accept(TestUtils.getEdgeXEvent()));
+
+        // Earlier generation is dropped when received after the later one
+        tracker.onSubscription(message(false, first));
+        assertEquals(1, tracker.getFilterCount());
+        tracker.onSubscription(message(false, second));
+        assertEquals(0, tracker.getFilterCount());
+        assertTrue(tracker.accept(TestUtils.getEdgeXEvent()));
+    }
+
+    @Test
+    public void supersededGenerationTest() {
+        EMFSubscriptionTracker tracker = new EMFSubscriptionTracker();
+        for (int generation = 1; generation <= 100; generation++) {
+            tracker.onSubscription(message(true, deviceFilter("Other").toSubscription(1L,
+                    generation)));
+            tracker.onSubscription(message(true, deviceFilter("Test").toSubscription(1L,
+                    generation)));
+        }
+        tracker.onSubscription(message(true, deviceFilter("Test").toSubscription(2L, 1)));
+        assertEquals(3, tracker.getFilterCount());
+
+        // Un-subscriptions of the dropped generations are ignored
+        tracker.onSubscription(message(false, deviceFilter("Other").toSubscription(1L, 1)));
+        assertEquals(3, tracker.getFilterCount());
+        tracker.onSubscription(message(false, deviceFilter("Other").toSubscription(1L, 100)));
+        tracker.onSubscription(message(false, deviceFilter("Test").toSubscription(1L, 100)));
+        assertEquals(1, tracker.getFilterCount());
+
+        // Subscriber declares from the first generation again on restart
+        tracker.onSubscription(message(true, deviceFilter("Other").toSubscription(1L, 1)));
+        assertEquals(2, tracker.getFilterCount());
+    }
+
+    @Test
+    public void topicSubscriptionTest() {
+        EMFSubscriptionTracker tracker = new EMFSubscriptionTracker();
+        tracker.onSubscription(message(true, "topic/".getBytes()));
+        tracker.onSubscription(message(true, new byte[0]));
+        tracker.onSubscription(new byte[0]);
+        assertEquals(0, tracker.getFilterCount());
+        assertTrue(tracker.accept(TestUtils.getEdgeXEvent()));
+    }
+
+    @Test
+    public void topicTrackingTest() {
+        EMFSubscriptionTracker tracker = new EMFSubscriptionTracker();
+        assertFalse(tracker.hasSubscription());
+        assertFalse(tracker.isSubscribed("home/room/".getBytes()));
+
+        tracker.onSubscription(message(true, "home/".getBytes()));
+        assertTrue(tracker.hasSubscription());
+        assertTrue(tracker.isSubscribed("home/room/".getBytes()));
+        assertFalse(tracker.isSubscribed("office/".getBytes()));
+        assertFalse(tracker.isSubscribed("ho".getBytes()));
+
+        // Empty subscription matches every topic
+        tracker.onSubscription(message(true, new byte[0]));
+        assertTrue(tracker.isSubscribed("office/".getBytes()));
+
+        tracker.onSubscription(message(false, new byte[0]));
+        tracker.onSubscription(message(false, "home/".getBytes()));
+        assertFalse(tracker.hasSubscription());
+        assertFalse(tracker.isSubscribed("home/room/".getBytes()));
+
+        // Filter declarations are not topic subscriptions
+        tracker.onSubscription(message(true, new EMFFilter().toSubscription(1L, 1)));
+        assertFalse(tracker.hasSubscription());
+        assertEquals(1, tracker.getFilterCount());
+    }
+
+    @Test
+    public void failTest() {
+        EMFSubscriptionTracker tracker = new EMFSubscriptionTracker();
+        tracker.onSubscription(message(true, "home/".getBytes()));
+        tracker.onSubscription(message(true, deviceFilter("Other").toSubscription(1L, 1)));
+        assertFalse(tracker.isFailed());
+        assertFalse(tracker.isSubscribed("office/".getBytes()));
+        assertFalse(tracker.accept(TestUtils.getEdgeXEvent()));
+
+        // Nothing is skipped once subscriptions may have been missed
+        tracker.fail();
+        assertTrue(tracker.isFailed());
+        assertTrue(tracker.isSubscribed("office/".getBytes()));
+        assertTrue(tracker.accept(TestUtils.getEdgeXEvent()));
+        tracker.onSubscription(message(false, "home/".getBytes()));
+        assertTrue(tracker.hasSubscription());
+    }
+}
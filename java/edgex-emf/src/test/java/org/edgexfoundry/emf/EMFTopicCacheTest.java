@@ -0,0 +1,45 @@
+package org.edgexfoundry.emf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class EMFTopicCacheTest {
+
+    @Test
+    public void getTopicTest() {
+        EMFTopicCache cache = new EMFTopicCache();
+        cache.addTopic("home/kitchen/");
+        assertEquals(1, cache.size());
+
+        String topic = cache.getTopic("home/kitchen/".getBytes());
+        assertEquals("home/kitchen/", topic);
+        assertEquals(1, cache.getHits());
+        assertEquals(0, cache.getMisses());
+
+        // Unknown topic is decoded once and cached
+        String unknown = cache.getTopic("home/livingroom/".getBytes());
+        assertEquals("home/livingroom/", unknown);
+        assertEquals(1, cache.getMisses());
+        assertTrue(unknown == cache.getTopic("home/livingroom/".getBytes()));
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void capacityTest() {
+        EMFTopicCache cache = new EMFTopicCache(4);
+        for (int i = 0; i < 10; i++) {
+            assertEquals("topic" + i + "/", cache.getTopic(("topic" + i + "/").getBytes()));
+        }
+        assertEquals(4, cache.size());
+        assertEquals(10, cache.getMisses());
+
+        // Topics beyond capacity are decoded every time
+        assertEquals("topic9/", cache.getTopic("topic9/".getBytes()));
+        assertEquals(11, cache.getMisses());
+        assertEquals("topic0/", cache.getTopic("topic0/".getBytes()));
+        assertEquals(1, cache.getHits());
+    }
+}
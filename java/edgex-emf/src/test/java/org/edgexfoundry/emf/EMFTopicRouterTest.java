@@ -0,0 +1,82 @@
+package org.edgexfoundry.emf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class EMFTopicRouterTest {
+
+    @Test
+    public void matchPrefixTest() {
+        EMFTopicRouter<String> router = new EMFTopicRouter<String>();
+        router.add("home/", "home");
+        router.add("home/livingroom/", "livingroom");
+        router.add("office/", "office");
+
+        assertEquals(Arrays.asList("home", "livingroom"), router.match("home/livingroom/"));
+        assertEquals(Arrays.asList("home", "livingroom"), router.match("home/livingroom/tv/"));
+        assertEquals(Collections.singletonList("home"), router.match("home/kitchen/"));
+        assertEquals(Collections.emptyList(), router.match("homes/"));
+        assertEquals(Collections.emptyList(), router.match("garage/"));
+    }
+
+    @Test
+    public void matchAllTest() {
+        EMFTopicRouter<String> router = new EMFTopicRouter<String>();
+        router.add("", "all");
+        assertEquals(Collections.singletonList("all"), router.match("home/"));
+        assertEquals(Collections.singletonList("all"), router.match("office/desk/"));
+    }
+
+    @Test
+    public void matchWildcardTest() {
+        EMFTopicRouter<String> router = new EMFTopicRouter<String>();
+        router.add("home/+/temperature/", "temperature");
+        router.add("+/kitchen/", "kitchen");
+
+        assertEquals(Collections.singletonList("temperature"),
+                router.match("home/livingroom/temperature/"));
+        assertEquals(Arrays.asList("temperature", "kitchen"),
+                router.match("home/kitchen/temperature/sensor1/"));
+        assertEquals(Collections.singletonList("kitchen"), router.match("office/kitchen/"));
+        assertEquals(Collections.emptyList(), router.match("home/livingroom/humidity/"));
+        assertEquals(Collections.emptyList(), router.match("home/temperature/"));
+    }
+
+    @Test
+    public void matchDuplicateTest() {
+        EMFTopicRouter<String> router = new EMFTopicRouter<String>();
+        router.add("home/", "handler");
+        router.add("home/+/", "handler");
+        router.add("home/kitchen/", "handler");
+        assertEquals(Collections.singletonList("handler"), router.match("home/kitchen/"));
+    }
+
+    @Test
+    public void removeTest() {
+        EMFTopicRouter<String> router = new EMFTopicRouter<String>();
+        router.add("home/+/", "handler");
+        router.add("home/+/", "handler");
+
+        assertTrue(router.remove("home/+/", "handler"));
+        assertEquals(Collections.singletonList("handler"), router.match("home/kitchen/"));
+        assertTrue(router.remove("home/+/", "handler"));
+        assertEquals(Collections.emptyList(), router.match("home/kitchen/"));
+
+        assertFalse(router.remove("home/+/", "handler"));
+        assertFalse(router.remove("office/", "handler"));
+    }
+
+    @Test
+    public void getPrefixTest() {
+        assertEquals("home/", EMFTopicRouter.getPrefix("home/+/temperature/"));
+        assertEquals("", EMFTopicRouter.getPrefix("+/kitchen/"));
+        assertEquals("home/kitchen/", EMFTopicRouter.getPrefix("home/kitchen/"));
+        assertEquals("home/kitchen/", EMFTopicRouter.getPrefix("home/kitchen/+/"));
+    }
+}
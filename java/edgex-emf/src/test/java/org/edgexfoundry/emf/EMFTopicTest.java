@@ -0,0 +1,44 @@
+package org.edgexfoundry.emf;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class EMFTopicTest {
+
+    @Test
+    public void createTest() {
+        EMFTopic topic = EMFTopic.create("home/livingroom");
+        assertNotNull(topic);
+        assertEquals("home/livingroom/", topic.getName());
+        assertArrayEquals("home/livingroom/".getBytes(), topic.getFrames()[0]);
+        assertEquals(1, topic.getFrames().length);
+
+        assertEquals("a-b_c.d/", EMFTopic.create("a-b_c.d/").getName());
+        assertEquals(EMFTopic.create("home/"), EMFTopic.create("home"));
+        assertEquals(EMFTopic.create("home/").hashCode(), EMFTopic.create("home").hashCode());
+    }
+
+    @Test
+    public void createNegativeTest() {
+        assertNull(EMFTopic.create(null));
+        assertNull(EMFTopic.create(""));
+        assertNull(EMFTopic.create("topic\";"));
+        assertNull(EMFTopic.create("topic/13/4jtjos/ "));
+        assertNull(EMFTopic.create("*123a"));
+        assertNull(EMFTopic.create("This is a topic"));
+        assertNull(EMFTopic.create("home/+/"));
+    }
+
+    @Test
+    public void validateTest() {
+        String topic = "home/kitchen/";
+        // Normalized topic is returned as is
+        assertEquals(true, topic == EMFTopic.validate(topic));
+        assertEquals("home/kitchen/", EMFTopic.validate("home/kitchen"));
+        assertNull(EMFTopic.validate("home/k\u00e4chen/"));
+    }
+}
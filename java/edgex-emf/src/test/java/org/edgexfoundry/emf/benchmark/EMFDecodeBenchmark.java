@@ -0,0 +1,103 @@
+package org.edgexfoundry.emf.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.domain.core.Reading;
+import org.edgexfoundry.emf.TestUtils;
+import org.edgexfoundry.emf.protobufevent.EMFEventConverter;
+import org.edgexfoundry.emf.protobufevent.EMFProtoEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+
+/**
+ * Measures decode throughput of received events against the number of
+ * readings in an event. Each benchmark routes the event on device and
+ * origin.
+ *
+ * routeGenerated: event is parsed by generated protocol buffer classes.
+ * routeFullDecode: event and readings are decoded by toEdgeXEvent.
+ * routeLazyDecode: only event fields are decoded by toLazyEdgeXEvent.
+ * readLazyDecode: lazily decoded event whose readings are also read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EMFDecodeBenchmark {
+
+    @Param({ "1", "10", "100" })
+    public int readingCount;
+
+    private byte[] mData;
+
+    @Setup
+    public void setup() {
+        Event event = TestUtils.getEdgeXEvent();
+        Reading template = event.getReadings().get(0);
+        List<Reading> readings = new ArrayList<Reading>();
+        for (int i = 0; i < readingCount; i++) {
+            Reading reading = new Reading();
+            reading.setId("id" + i);
+            reading.setName(template.getName());
+            reading.setValue(template.getValue());
+            reading.setDevice(template.getDevice());
+            reading.setCreated(template.getCreated());
+            reading.setModified(template.getModified());
+            reading.setOrigin(template.getOrigin());
+            reading.setPushed(template.getPushed());
+            readings.add(reading);
+        }
+        event.setReadings(readings);
+        mData = EMFEventConverter.toProtoBuf(event);
+    }
+
+    @Benchmark
+    public long routeGenerated() throws InvalidProtocolBufferException {
+        Event event = EMFProtoEvent.Event.parseFrom(mData).getEdgeXEventObject();
+        return route(event);
+    }
+
+    @Benchmark
+    public long routeFullDecode() {
+        return route(EMFEventConverter.toEdgeXEvent(mData));
+    }
+
+    @Benchmark
+    public long routeLazyDecode() {
+        return route(EMFEventConverter.toLazyEdgeXEvent(mData));
+    }
+
+    @Benchmark
+    public long readLazyDecode() {
+        Event event = EMFEventConverter.toLazyEdgeXEvent(mData);
+        return route(event) + event.getReadings().size();
+    }
+
+    private static long route(Event event) {
+        return event.getDevice().hashCode() + event.getOrigin();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EMFDecodeBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
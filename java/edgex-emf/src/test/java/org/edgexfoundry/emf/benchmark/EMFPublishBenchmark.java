@@ -0,0 +1,123 @@
+package org.edgexfoundry.emf.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.emf.EMFAPI;
+import org.edgexfoundry.emf.EMFEncodedEvent;
+import org.edgexfoundry.emf.EMFPublisher;
+import org.edgexfoundry.emf.EMFSubscriber;
+import org.edgexfoundry.emf.EMFSubscriber.EMFSubCallback;
+import org.edgexfoundry.emf.EMFTopic;
+import org.edgexfoundry.emf.TestUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures fan-out publish throughput against the number of topics an event
+ * is published on.
+ *
+ * publishPerTopic: event is encoded and written for every topic separately.
+ * publishPerEMFTopic: same as publishPerTopic with topics validated once.
+ * publishTopicList: event is encoded once by publish(List, Event).
+ * publishEncoded: event is encoded once up front and reused across calls.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EMFPublishBenchmark {
+
+    private static final int PORT = 5590;
+
+    @Param({ "1", "10", "50", "100" })
+    public int topicCount;
+
+    private EMFPublisher mPublisher;
+    private EMFSubscriber mSubscriber;
+    private Event mEvent;
+    private EMFEncodedEvent mEncodedEvent;
+    private List<String> mTopics;
+    private List<EMFTopic> mEMFTopics;
+
+    @Setup
+    public void setup() throws InterruptedException {
+        EMFAPI.getInstance().initialize();
+        mPublisher = new EMFPublisher(PORT, null);
+        mPublisher.start();
+
+        // Subscriber keeps the publisher writing on a connected socket
+        mSubscriber = new EMFSubscriber("localhost", PORT, new EMFSubCallback() {
+            public void onMessageCB(Event event) {
+            }
+
+            public void onMessageCB(String topic, Event event) {
+            }
+        });
+        mSubscriber.start();
+        mSubscriber.subscribe();
+        Thread.sleep(500);
+
+        mEvent = TestUtils.getEdgeXEvent();
+        mEncodedEvent = EMFEncodedEvent.encode(mEvent);
+        mTopics = new ArrayList<String>();
+        mEMFTopics = new ArrayList<EMFTopic>();
+        for (int i = 0; i < topicCount; i++) {
+            mTopics.add("benchmark/device" + i + "/");
+            mEMFTopics.add(EMFTopic.create("benchmark/device" + i + "/"));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        mSubscriber.stop();
+        mPublisher.stop();
+        EMFAPI.getInstance().terminate();
+    }
+
+    @Benchmark
+    public void publishPerTopic() {
+        for (String topic : mTopics) {
+            mPublisher.publish(topic, mEvent);
+        }
+    }
+
+    @Benchmark
+    public void publishPerEMFTopic() {
+        for (EMFTopic topic : mEMFTopics) {
+            mPublisher.publish(topic, mEvent);
+        }
+    }
+
+    @Benchmark
+    public void publishTopicList() {
+        mPublisher.publish(mTopics, mEvent);
+    }
+
+    @Benchmark
+    public void publishEncoded() {
+        mPublisher.publish(mTopics, mEncodedEvent);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EMFPublishBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,132 @@
+package org.edgexfoundry.emf.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.emf.EMFContext;
+import org.edgexfoundry.emf.EMFEndpoint;
+import org.edgexfoundry.emf.EMFPublishMode;
+import org.edgexfoundry.emf.EMFPublisher;
+import org.edgexfoundry.emf.EMFSocketConfig;
+import org.edgexfoundry.emf.EMFSubscriber;
+import org.edgexfoundry.emf.EMFSubscriber.EMFSubCallback;
+import org.edgexfoundry.emf.TestUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares publisher to subscriber delivery over the TCP, IPC and INPROC
+ * transports. Both ends run in this JVM on a shared {@link EMFContext}, as
+ * INPROC requires.
+ *
+ * throughput: burst of events published and received, per event.
+ * latency: single event published and received by the subscriber callback.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EMFTransportBenchmark {
+
+    private static final int PORT = 5591;
+    private static final int BURST = 100;
+    private static final String TOPIC = "benchmark/transport";
+
+    @Param({ "tcp", "ipc", "inproc" })
+    public String transport;
+
+    private EMFContext mContext;
+    private EMFPublisher mPublisher;
+    private EMFSubscriber mSubscriber;
+    private Event mEvent;
+    private final AtomicLong mReceived = new AtomicLong();
+    private long mExpected;
+
+    @Setup
+    public void setup() throws InterruptedException {
+        EMFEndpoint endpoint;
+        if ("inproc".equals(transport)) {
+            endpoint = EMFEndpoint.inproc("emf-transport-benchmark");
+        } else if ("ipc".equals(transport)) {
+            endpoint = EMFEndpoint.ipc("emf-transport-benchmark");
+        } else {
+            endpoint = EMFEndpoint.tcp(PORT);
+        }
+
+        mContext = new EMFContext();
+        mContext.initialize();
+        EMFSocketConfig config = new EMFSocketConfig();
+        config.setEndpoint(endpoint);
+        config.setContext(mContext);
+        mPublisher = new EMFPublisher(config, null, EMFPublishMode.EMF_SYNC, 1);
+        mPublisher.start();
+        mSubscriber = new EMFSubscriber(config, new EMFSubCallback() {
+            public void onMessageCB(Event event) {
+            }
+
+            public void onMessageCB(String topic, Event event) {
+                mReceived.incrementAndGet();
+            }
+        }, null);
+        mSubscriber.start();
+        mSubscriber.subscribe(TOPIC);
+        Thread.sleep(500);
+
+        mEvent = TestUtils.getEdgeXEvent();
+        mExpected = mReceived.get();
+    }
+
+    @TearDown
+    public void tearDown() {
+        mSubscriber.stop();
+        mPublisher.stop();
+        mContext.terminate();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(BURST)
+    public void throughput() {
+        for (int i = 0; i < BURST; i++) {
+            mPublisher.publish(TOPIC, mEvent);
+        }
+        await(BURST);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void latency() {
+        mPublisher.publish(TOPIC, mEvent);
+        await(1);
+    }
+
+    // Burst stays below the default high water mark, so no event is dropped
+    private void await(int count) {
+        mExpected += count;
+        while (mReceived.get() < mExpected) {
+            Thread.yield();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EMFTransportBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -1,12 +1,22 @@
 package org.edgexfoundry.emf.protobufevent;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import org.edgexfoundry.domain.core.Event;
+import org.edgexfoundry.domain.core.Reading;
 import org.edgexfoundry.emf.TestUtils;
 import org.junit.Test;
 
+import com.google.protobuf.CodedOutputStream;
+
 public class EMFEventCoverterTest {
 
     @Test
@@ -29,6 +39,33 @@ public class EMFEventCoverterTest {
         assertEquals(null, byteEvent);
     }
 
+    @Test
+    public void toProtoBufWireFormatTest() {
+        Event event = TestUtils.getEdgeXEvent();
+        event.setOrigin(-1);
+        event.getReadings().get(0).setValue("\u00e9\u4e2d");
+
+        // Encode with generated protocol buffer builders
+        EMFProtoEvent.Event.Builder eventBuilder = EMFProtoEvent.Event.newBuilder();
+        eventBuilder.setEdgeXReading(event);
+        for (Reading reading : event.getReadings()) {
+            EMFProtoEvent.Reading.Builder readingBuilder = EMFProtoEvent.Reading.newBuilder();
+            readingBuilder.setEdgeXReading(reading);
+            eventBuilder.addReading(readingBuilder);
+        }
+        byte[] expected = eventBuilder.build().toByteArray();
+
+        assertArrayEquals(expected, EMFEventConverter.toProtoBuf(event));
+        assertEquals(expected.length, EMFEventConverter.getSerializedSize(event));
+    }
+
+    @Test
+    public void toProtoBufSizeNegativeTest() {
+        assertNull(EMFEventConverter.toProtoBuf(TestUtils.getWrongEvent()));
+        assertEquals(-1, EMFEventConverter.getSerializedSize(TestUtils.getWrongEvent()));
+        assertEquals(-1, EMFEventConverter.getSerializedSize(null));
+    }
+
     @Test
     public void toEdgeXEventTest() {
         Event event = TestUtils.getEdgeXEvent();
@@ -44,4 +81,96 @@ public class EMFEventCoverterTest {
         assertEquals(null, edgexEvent);
     }
 
+    @Test
+    public void toEdgeXEventFromBufferTest() {
+        Event event = TestUtils.getEdgeXEvent();
+        byte[] byteEvent = EMFEventConverter.toProtoBuf(event);
+        ByteBuffer direct = ByteBuffer.allocateDirect(byteEvent.length);
+        direct.put(byteEvent).flip();
+        assertEvent(event, EMFEventConverter.toEdgeXEventFromBuffer(direct));
+        assertEquals(0, direct.position());
+        assertEvent(event, EMFEventConverter.toEdgeXEventFromBuffer(ByteBuffer.wrap(byteEvent)));
+    }
+
+    @Test
+    public void toEdgeXEventFromBufferNegativeTest() {
+        assertEquals(null, EMFEventConverter.toEdgeXEventFromBuffer(null));
+        byte[] byteEvent = EMFEventConverter.toProtoBuf(TestUtils.getEdgeXEvent());
+        // Truncated event is missing the required fields
+        ByteBuffer truncated = ByteBuffer.wrap(byteEvent, 0, 4);
+        assertEquals(null, EMFEventConverter.toEdgeXEventFromBuffer(truncated));
+        assertEquals(null, EMFEventConverter.toEdgeXEventFromBuffer(ByteBuffer.wrap(new byte[] { 1, 2, 3 })));
+    }
+
+    private void assertEvent(Event expected, Event actual) {
+        assertNotNull(actual);
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getDevice(), actual.getDevice());
+        assertEquals(expected.getCreated(), actual.getCreated());
+        assertEquals(expected.getModified(), actual.getModified());
+        assertEquals(expected.getOrigin(), actual.getOrigin());
+        assertEquals(expected.getPushed(), actual.getPushed());
+        assertEquals(expected.getReadings().size(), actual.getReadings().size());
+        for (int i = 0; i < expected.getReadings().size(); i++) {
+            Reading reading = expected.getReadings().get(i);
+            Reading result = actual.getReadings().get(i);
+            assertEquals(reading.getId(), result.getId());
+            assertEquals(reading.getName(), result.getName());
+            assertEquals(reading.getValue(), result.getValue());
+            assertEquals(reading.getDevice(), result.getDevice());
+            assertEquals(reading.getCreated(), result.getCreated());
+            assertEquals(reading.getModified(), result.getModified());
+            assertEquals(reading.getOrigin(), result.getOrigin());
+            assertEquals(reading.getPushed(), result.getPushed());
+        }
+    }
+
+    @Test
+    public void toLazyEdgeXEventTest() {
+        Event event = TestUtils.getEdgeXEvent();
+        byte[] byteEvent = EMFEventConverter.toProtoBuf(event);
+        Event lazyEvent = EMFEventConverter.toLazyEdgeXEvent(byteEvent);
+        assertNotNull(lazyEvent);
+        assertFalse(((EMFLazyEvent) lazyEvent).isDecoded());
+        assertEquals(event.getId(), lazyEvent.getId());
+        assertEquals(event.getDevice(), lazyEvent.getDevice());
+        assertEquals(event.getOrigin(), lazyEvent.getOrigin());
+        assertFalse(((EMFLazyEvent) lazyEvent).isDecoded());
+
+        assertEvent(event, lazyEvent);
+        assertTrue(((EMFLazyEvent) lazyEvent).isDecoded());
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(byteEvent.length);
+        direct.put(byteEvent).flip();
+        assertEvent(event, EMFEventConverter.toLazyEdgeXEventFromBuffer(direct));
+        assertEvent(event, EMFEventConverter.toLazyEdgeXEventFromBuffer(ByteBuffer.wrap(byteEvent)));
+    }
+
+    @Test
+    public void toLazyEdgeXEventNegativeTest() throws IOException {
+        assertEquals(null, EMFEventConverter.toLazyEdgeXEvent(null));
+        assertEquals(null, EMFEventConverter.toLazyEdgeXEventFromBuffer(null));
+        assertEquals(null, EMFEventConverter.toLazyEdgeXEvent(new byte[] { 1, 2, 3 }));
+
+        // Valid event fields with a reading missing required fields
+        byte[] data = new byte[256];
+        CodedOutputStream output = CodedOutputStream.newInstance(data);
+        output.writeString(1, "id");
+        output.writeInt64(2, 1);
+        output.writeInt64(3, 2);
+        output.writeInt64(4, 3);
+        output.writeInt64(5, 4);
+        output.writeString(6, "device");
+        output.writeTag(7, 2);
+        output.writeUInt32NoTag(CodedOutputStream.computeStringSize(6, "name"));
+        output.writeString(6, "name");
+        byte[] byteEvent = new byte[output.getTotalBytesWritten()];
+        System.arraycopy(data, 0, byteEvent, 0, byteEvent.length);
+
+        assertEquals(null, EMFEventConverter.toEdgeXEvent(byteEvent));
+        Event lazyEvent = EMFEventConverter.toLazyEdgeXEvent(byteEvent);
+        assertNotNull(lazyEvent);
+        assertEquals("device", lazyEvent.getDevice());
+        assertTrue(lazyEvent.getReadings().isEmpty());
+    }
 }